@@ -0,0 +1,86 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records latencies of a single operation type on a single thread. Up to {@value #CAPACITY} samples are kept, further
+ * samples replace existing ones at random (reservoir sampling), so percentiles stay representative for long runs.
+ *
+ * @author Benjamin Wied
+ */
+final class LatencyRecorder
+{
+    private static final int CAPACITY = 1 << 20;
+
+    private long[] samples = new long[1024];
+    private int size;
+    private long count;
+
+    void record(long nanos)
+    {
+        count++;
+        if (size < CAPACITY) {
+            if (size == samples.length)
+                samples = Arrays.copyOf(samples, samples.length * 2);
+            samples[size++] = nanos;
+        } else {
+            long index = ThreadLocalRandom.current().nextLong(count);
+            if (index < CAPACITY)
+                samples[(int) index] = nanos;
+        }
+    }
+
+    long count()
+    {
+        return count;
+    }
+
+    /**
+     * Merges the given recorders into a sorted array of samples.
+     */
+    static long[] merge(Iterable<LatencyRecorder> recorders)
+    {
+        long[] merged = new long[0];
+        for (LatencyRecorder recorder : recorders) {
+            int offset = merged.length;
+            merged = Arrays.copyOf(merged, offset + recorder.size);
+            System.arraycopy(recorder.samples, 0, merged, offset, recorder.size);
+        }
+
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    static long percentile(long[] sorted, double percentile)
+    {
+        if (sorted.length == 0)
+            return 0;
+
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
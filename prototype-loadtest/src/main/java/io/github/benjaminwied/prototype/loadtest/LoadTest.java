@@ -0,0 +1,217 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype.loadtest;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.benjaminwied.prototype.Prototype;
+import io.github.benjaminwied.prototype.PrototypeManager;
+import io.github.benjaminwied.prototype.SimplePrototype;
+
+/**
+ * Multi-threaded load test of {@link PrototypeManager}. Worker threads continuously read prototypes using
+ * {@link PrototypeManager#createType(String)}, replace single prototypes and reload the whole registry, according to
+ * the configured weights. Writes use {@link PrototypeManager#update(java.util.Collection, java.util.Collection)}, which
+ * replaces prototypes without logging a warning, so that console output is not measured. Every registered name is
+ * present in every reload, so a reader failing to find a name is reported as a consistency violation.<br>
+ * <br>
+ * Run with {@code --help} for a list of options.
+ *
+ * @author Benjamin Wied
+ */
+public final class LoadTest
+{
+    private enum Operation
+    {
+        READ, WRITE, RELOAD
+    }
+
+    private final LoadTestOptions options;
+    private final PrototypeManager manager = new PrototypeManager();
+    private final String[] names;
+    private final Map<String, Prototype<?>> content = new HashMap<>();
+    private final AtomicLong violations = new AtomicLong();
+
+    private volatile boolean running = true;
+    private volatile boolean measuring;
+
+    private LoadTest(LoadTestOptions options)
+    {
+        this.options = options;
+
+        names = new String[options.registrySize];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "load/prototype" + i;
+            content.put(names[i], prototype(names[i]));
+        }
+        manager.registerAll(content);
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param  args
+     *                              command line options
+     *
+     * @throws InterruptedException
+     *                              if interrupted while waiting for the workers
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        LoadTestOptions options;
+        try {
+            if (List.of(args).contains("--help")) {
+                System.out.print(LoadTestOptions.USAGE);
+                return;
+            }
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        if (!new LoadTest(options).run())
+            System.exit(1);
+    }
+
+    private boolean run() throws InterruptedException
+    {
+        System.out.println("Running load test: " + options);
+
+        List<Map<Operation, LatencyRecorder>> recorders = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < options.threads; i++) {
+            Map<Operation, LatencyRecorder> workerRecorders = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values())
+                workerRecorders.put(operation, new LatencyRecorder());
+
+            recorders.add(workerRecorders);
+            workers.add(newThread(() -> work(workerRecorders)));
+        }
+
+        workers.forEach(Thread::start);
+        Thread.sleep(options.warmUp.toMillis());
+
+        measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(options.duration.toMillis());
+        measuring = false;
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        running = false;
+        for (Thread worker : workers)
+            worker.join();
+
+        System.out.printf("%-8s %12s %14s %10s %10s %10s%n", "op", "count", "ops/s", "p50 us", "p99 us", "p999 us");
+        for (Operation operation : Operation.values()) {
+            List<LatencyRecorder> operationRecorders = new ArrayList<>();
+            long count = 0;
+            for (Map<Operation, LatencyRecorder> workerRecorders : recorders) {
+                operationRecorders.add(workerRecorders.get(operation));
+                count += workerRecorders.get(operation).count();
+            }
+
+            long[] samples = LatencyRecorder.merge(operationRecorders);
+            System.out.printf(
+                    "%-8s %12d %14.0f %10.1f %10.1f %10.1f%n", operation.name().toLowerCase(), count, count / seconds,
+                    LatencyRecorder.percentile(samples, 50) / 1e3, LatencyRecorder.percentile(samples, 99) / 1e3,
+                    LatencyRecorder.percentile(samples, 99.9) / 1e3
+            );
+        }
+
+        System.out.println("Consistency violations: " + violations.get());
+        return violations.get() == 0;
+    }
+
+    private void work(Map<Operation, LatencyRecorder> recorders)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int totalWeight = options.readWeight + options.writeWeight + options.reloadWeight;
+
+        while (running) {
+            int choice = random.nextInt(totalWeight);
+            Operation operation = choice < options.readWeight ? Operation.READ
+                    : choice < options.readWeight + options.writeWeight ? Operation.WRITE : Operation.RELOAD;
+            String name = names[random.nextInt(names.length)];
+
+            long start = System.nanoTime();
+            switch (operation) {
+                case READ -> read(name);
+                case WRITE -> manager.update(List.of(prototype(name)), Set.of());
+                case RELOAD -> reload();
+            }
+            long latency = System.nanoTime() - start;
+
+            if (measuring)
+                recorders.get(operation).record(latency);
+        }
+    }
+
+    private void read(String name)
+    {
+        try {
+            manager.createType(name);
+        } catch (IllegalArgumentException e) {
+            violations.incrementAndGet();
+        }
+    }
+
+    private void reload()
+    {
+        if (options.atomicReload)
+            manager.replaceAll(content.values());
+        else {
+            manager.clear();
+            manager.registerAll(content);
+        }
+    }
+
+    private static Prototype<?> prototype(String name)
+    {
+        return new SimplePrototype<>(name, (String prototypeName) -> prototypeName.length());
+    }
+
+    private Thread newThread(Runnable task)
+    {
+        if (!options.virtualThreads)
+            return new Thread(task, "load-test-worker");
+
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (Thread) Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class)
+                    .invoke(builder, task);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer", e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Command line options of {@link LoadTest}.
+ *
+ * @author Benjamin Wied
+ */
+final class LoadTestOptions
+{
+    static final String USAGE = """
+            Usage: LoadTest [options]
+              --threads <n>        number of worker threads (default: available processors)
+              --virtual            run workers on virtual threads (requires Java 21+)
+              --duration <s>       measured duration in seconds (default: 10)
+              --warm-up <s>        unmeasured warm-up in seconds (default: 2)
+              --registry-size <n>  number of registered prototypes (default: 10000)
+              --read <w>           relative weight of createType calls (default: 1000)
+              --write <w>          relative weight of register calls (default: 10)
+              --reload <w>         relative weight of full reloads (default: 1)
+              --atomic-reload      reload using replaceAll instead of clear and registerAll
+            """;
+
+    int threads = Runtime.getRuntime().availableProcessors();
+    boolean virtualThreads;
+    Duration duration = Duration.ofSeconds(10);
+    Duration warmUp = Duration.ofSeconds(2);
+    int registrySize = 10_000;
+    int readWeight = 1000;
+    int writeWeight = 10;
+    int reloadWeight = 1;
+    boolean atomicReload;
+
+    static LoadTestOptions parse(String[] args)
+    {
+        LoadTestOptions options = new LoadTestOptions();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> options.threads = positive(args, ++i);
+                case "--virtual" -> options.virtualThreads = true;
+                case "--duration" -> options.duration = Duration.ofSeconds(positive(args, ++i));
+                case "--warm-up" -> options.warmUp = Duration.ofSeconds(nonNegative(args, ++i));
+                case "--registry-size" -> options.registrySize = positive(args, ++i);
+                case "--read" -> options.readWeight = nonNegative(args, ++i);
+                case "--write" -> options.writeWeight = nonNegative(args, ++i);
+                case "--reload" -> options.reloadWeight = nonNegative(args, ++i);
+                case "--atomic-reload" -> options.atomicReload = true;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        if (options.readWeight + options.writeWeight + options.reloadWeight == 0)
+            throw new IllegalArgumentException("At least one operation weight must be positive");
+
+        return options;
+    }
+
+    private static int positive(String[] args, int index)
+    {
+        int value = nonNegative(args, index);
+        if (value == 0)
+            throw new IllegalArgumentException(args[index - 1] + " must be positive");
+
+        return value;
+    }
+
+    private static int nonNegative(String[] args, int index)
+    {
+        if (index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+
+        int value = Integer.parseInt(args[index]);
+        if (value < 0)
+            throw new IllegalArgumentException(args[index - 1] + " must not be negative");
+
+        return value;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "threads=" + threads + (virtualThreads ? " (virtual)" : "") + ", duration=" + duration.toSeconds()
+                + "s, registrySize=" + registrySize + ", weights(read/write/reload)=" + readWeight + "/" + writeWeight
+                + "/" + reloadWeight + ", reload=" + (atomicReload ? "replaceAll" : "clear+registerAll");
+    }
+}
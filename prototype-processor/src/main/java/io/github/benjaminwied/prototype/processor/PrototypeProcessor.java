@@ -0,0 +1,289 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates {@code PrototypeMetadata} classes for all {@code Prototype} implementations being compiled.<br>
+ * <br>
+ * For each concrete, non-private prototype class {@code Foo}, a class {@code Foo_PrototypeMetadata} is generated into
+ * the same package. It provides reflection-free accessors for all public instance fields, including their
+ * {@code OptionalReference} flags. Additionally, a class index mapping prototype classes to their metadata is written
+ * to {@code META-INF/io.github.benjaminwied.prototype/metadata.index}, which is read by
+ * {@code PrototypeMetadataIndex}.
+ *
+ * @author Benjamin Wied
+ */
+@SupportedAnnotationTypes("*")
+public final class PrototypeProcessor extends AbstractProcessor
+{
+    static final String PROTOTYPE = "io.github.benjaminwied.prototype.Prototype";
+    static final String METADATA = "io.github.benjaminwied.prototype.PrototypeMetadata";
+    static final String FIELD = "io.github.benjaminwied.prototype.PrototypeField";
+    static final String OPTIONAL_REFERENCE = "io.github.benjaminwied.prototype.OptionalReference";
+    static final String INDEX_RESOURCE = "META-INF/io.github.benjaminwied.prototype/metadata.index";
+    static final String METADATA_SUFFIX = "_PrototypeMetadata";
+
+    private final Map<String, String> index = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+    {
+        TypeElement prototype = processingEnv.getElementUtils().getTypeElement(PROTOTYPE);
+        if (prototype == null)
+            return false;
+
+        TypeMirror prototypeType = processingEnv.getTypeUtils().erasure(prototype.asType());
+
+        if (roundEnv.processingOver())
+            writeIndex();
+        else
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements()))
+                processType(type, prototypeType);
+
+        return false;
+    }
+
+    private void processType(TypeElement type, TypeMirror prototypeType)
+    {
+        if (type.getModifiers().contains(Modifier.PRIVATE))
+            return;
+
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements()))
+            processType(nested, prototypeType);
+
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT))
+            return;
+        Types types = processingEnv.getTypeUtils();
+        if (!types.isAssignable(types.erasure(type.asType()), prototypeType))
+            return;
+
+        if (hasGenericEnclosingInstance(type))
+            return;
+
+        try {
+            generateMetadata(type);
+        } catch (IOException e) {
+            processingEnv.getMessager()
+                    .printMessage(Diagnostic.Kind.ERROR, "Failed to generate prototype metadata: " + e, type);
+        }
+    }
+
+    private void generateMetadata(TypeElement type) throws IOException
+    {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String typeName = type.getQualifiedName().toString();
+        String typeUse = typeUse(type);
+        String metadataName = metadataSimpleName(type);
+        String qualifiedMetadataName = packageName.isEmpty() ? metadataName : packageName + "." + metadataName;
+
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(processingEnv.getElementUtils().getAllMembers(type)))
+            if (field.getModifiers().contains(Modifier.PUBLIC) && !field.getModifiers().contains(Modifier.STATIC))
+                fields.add(field);
+
+        for (VariableElement field : fields) {
+            if (!isAccessible(field.asType(), packageElement)) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.NOTE,
+                        "Type of field " + field.getSimpleName() + " is not accessible, " + typeName
+                                + " is checked using reflection",
+                        type
+                );
+                return;
+            }
+        }
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedMetadataName, type).openWriter()) {
+            if (!packageName.isEmpty())
+                writer.write("package " + packageName + ";\n\n");
+
+            writer.write("@SuppressWarnings({ \"rawtypes\", \"unchecked\" })\n");
+            writer.write("public final class " + metadataName + " implements " + METADATA + "<" + typeUse + ">\n");
+            writer.write("{\n");
+            writer.write("    private static final java.util.List<" + FIELD + "<" + typeUse + ">> FIELDS = ");
+            writer.write("java.util.List.of(");
+
+            for (int i = 0; i < fields.size(); i++) {
+                VariableElement field = fields.get(i);
+                String fieldName = field.getSimpleName().toString();
+                writer.write(i == 0 ? "\n" : ",\n");
+                writer.write(
+                        "            new " + FIELD + "<>(\"" + fieldName + "\", "
+                                + processingEnv.getTypeUtils().erasure(field.asType()) + ".class, "
+                                + isOptionalReference(field) + ", prototype -> prototype." + fieldName + ")"
+                );
+            }
+
+            writer.write("\n    );\n\n");
+            writer.write("    @Override\n");
+            writer.write("    public Class<" + typeUse + "> prototypeClass()\n");
+            writer.write("    {\n");
+            writer.write("        return (Class) " + typeName + ".class;\n");
+            writer.write("    }\n\n");
+            writer.write("    @Override\n");
+            writer.write("    public java.util.List<" + FIELD + "<" + typeUse + ">> fields()\n");
+            writer.write("    {\n");
+            writer.write("        return FIELDS;\n");
+            writer.write("    }\n");
+            writer.write("}\n");
+        }
+
+        index.put(processingEnv.getElementUtils().getBinaryName(type).toString(), qualifiedMetadataName);
+    }
+
+    /**
+     * Returns the type to use as type argument of the generated metadata. Generic types are parameterized with
+     * wildcards, as their raw type is not within the bounds of {@code PrototypeMetadata}.
+     */
+    private static String typeUse(TypeElement type)
+    {
+        String name = type.getQualifiedName().toString();
+        int parameters = type.getTypeParameters().size();
+        if (parameters == 0)
+            return name;
+
+        return name + "<" + String.join(", ", Collections.nCopies(parameters, "?")) + ">";
+    }
+
+    /**
+     * Returns true if the erasure of the given type can be referenced from source code in the given package, e.g. as
+     * class literal. Private types, and non-public types of other packages, are not accessible.
+     */
+    private boolean isAccessible(TypeMirror type, PackageElement from)
+    {
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+        if (erasure instanceof ArrayType array)
+            return isAccessible(array.getComponentType(), from);
+        if (!(erasure instanceof DeclaredType declared))
+            return true;
+
+        for (Element element = declared.asElement(); element instanceof TypeElement typeElement; element = element
+                .getEnclosingElement()) {
+            Set<Modifier> modifiers = typeElement.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE))
+                return false;
+            if (!modifiers.contains(Modifier.PUBLIC)
+                    && !processingEnv.getElementUtils().getPackageOf(typeElement).equals(from))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true for inner classes of generic types. Their type cannot be written without also parameterizing the
+     * enclosing type, so they are checked using reflection instead.
+     */
+    private static boolean hasGenericEnclosingInstance(TypeElement type)
+    {
+        TypeElement current = type;
+        while (current.getNestingKind() == NestingKind.MEMBER && !current.getModifiers().contains(Modifier.STATIC)) {
+            if (!(current.getEnclosingElement() instanceof TypeElement enclosing))
+                return false;
+            if (!enclosing.getTypeParameters().isEmpty())
+                return true;
+
+            current = enclosing;
+        }
+
+        return false;
+    }
+
+    private static String metadataSimpleName(TypeElement type)
+    {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement; enclosing = enclosing
+                .getEnclosingElement())
+            name.insert(0, enclosing.getSimpleName() + "_");
+
+        return name.append(METADATA_SUFFIX).toString();
+    }
+
+    private static boolean isOptionalReference(VariableElement field)
+    {
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            Element element = annotation.getAnnotationType().asElement();
+            if (element instanceof TypeElement typeElement
+                    && typeElement.getQualifiedName().contentEquals(OPTIONAL_REFERENCE))
+                return true;
+        }
+
+        return false;
+    }
+
+    private void writeIndex()
+    {
+        if (index.isEmpty())
+            return;
+
+        try {
+            FileObject resource = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+            try (Writer writer = resource.openWriter()) {
+                for (Map.Entry<String, String> entry : index.entrySet())
+                    writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager()
+                    .printMessage(Diagnostic.Kind.ERROR, "Failed to write prototype metadata index: " + e);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype.replication;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A replicated modification of a {@link io.github.benjaminwied.prototype.PrototypeManager PrototypeManager}, moving a
+ * follower from {@link #getBaseGeneration() base generation} to {@link #getGeneration() generation}. A full delta
+ * (snapshot) replaces the whole registry and can be applied regardless of the follower's generation.<br>
+ * <br>
+ * Registered prototypes are carried in serialized form, as produced by a
+ * {@link io.github.benjaminwied.prototype.PrototypeCodec PrototypeCodec}.
+ *
+ * @author Benjamin Wied
+ */
+public final class Delta
+{
+    /**
+     * Maximum size of a single serialized prototype accepted when reading a delta.
+     */
+    static final int MAX_PROTOTYPE_SIZE = 64 * 1024 * 1024;
+
+    private final boolean full;
+    private final long baseGeneration;
+    private final long generation;
+    private final Map<String, byte[]> registered;
+    private final Set<String> removed;
+
+    private Delta(
+            boolean full, long baseGeneration, long generation, Map<String, byte[]> registered, Set<String> removed
+    )
+    {
+        this.full = full;
+        this.baseGeneration = baseGeneration;
+        this.generation = generation;
+        this.registered = Collections.unmodifiableMap(new LinkedHashMap<>(registered));
+        this.removed = Set.copyOf(removed);
+    }
+
+    /**
+     * Creates a full delta, containing all prototypes registered at the given generation.
+     *
+     * @param  generation
+     *                              generation of the snapshot
+     * @param  prototypes
+     *                              serialized prototypes by name
+     *
+     * @return                      the snapshot
+     *
+     * @throws NullPointerException
+     *                              if prototypes is null
+     */
+    public static Delta snapshot(long generation, Map<String, byte[]> prototypes)
+    {
+        Objects.requireNonNull(prototypes, "prototypes must not be null");
+        return new Delta(true, generation, generation, prototypes, Set.of());
+    }
+
+    /**
+     * Creates an incremental delta.
+     *
+     * @param  baseGeneration
+     *                              generation this delta applies to
+     * @param  generation
+     *                              generation after applying this delta
+     * @param  registered
+     *                              serialized prototypes registered or replaced, by name
+     * @param  removed
+     *                              names of removed prototypes
+     *
+     * @return                      the delta
+     *
+     * @throws NullPointerException
+     *                              if registered or removed is null
+     */
+    public static Delta incremental(
+            long baseGeneration, long generation, Map<String, byte[]> registered, Set<String> removed
+    )
+    {
+        Objects.requireNonNull(registered, "registered must not be null");
+        Objects.requireNonNull(removed, "removed must not be null");
+        return new Delta(false, baseGeneration, generation, registered, removed);
+    }
+
+    /**
+     * @return true if this delta replaces the whole registry
+     */
+    public boolean isFull()
+    {
+        return full;
+    }
+
+    /**
+     * @return the generation this delta applies to
+     */
+    public long getBaseGeneration()
+    {
+        return baseGeneration;
+    }
+
+    /**
+     * @return the generation after applying this delta
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * @return an unmodifiable map of serialized prototypes registered or replaced, by name
+     */
+    public Map<String, byte[]> getRegistered()
+    {
+        return registered;
+    }
+
+    /**
+     * @return the names of removed prototypes
+     */
+    public Set<String> getRemoved()
+    {
+        return removed;
+    }
+
+    /**
+     * Returns a delta equivalent to applying this delta followed by the given delta.
+     *
+     * @param  next
+     *                                  delta following this delta
+     *
+     * @return                          the combined delta
+     *
+     * @throws IllegalArgumentException
+     *                                  if next does not apply to the generation of this delta
+     */
+    public Delta merge(Delta next)
+    {
+        if (next.full)
+            return next;
+        if (next.baseGeneration != generation)
+            throw new IllegalArgumentException("Delta " + next + " does not follow " + this);
+
+        Map<String, byte[]> mergedRegistered = new HashMap<>(registered);
+        Set<String> mergedRemoved = new HashSet<>(removed);
+        mergedRegistered.keySet().removeAll(next.removed);
+        mergedRegistered.putAll(next.registered);
+        if (!full)
+            mergedRemoved.addAll(next.removed);
+        mergedRemoved.removeAll(next.registered.keySet());
+
+        return new Delta(full, baseGeneration, next.generation, mergedRegistered, mergedRemoved);
+    }
+
+    void writeTo(DataOutput out) throws IOException
+    {
+        out.writeBoolean(full);
+        out.writeLong(baseGeneration);
+        out.writeLong(generation);
+
+        out.writeInt(registered.size());
+        for (Map.Entry<String, byte[]> entry : registered.entrySet()) {
+            if (entry.getValue().length > MAX_PROTOTYPE_SIZE)
+                throw new IOException("Serialized prototype " + entry.getKey() + " exceeds maximum size");
+
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().length);
+            out.write(entry.getValue());
+        }
+
+        out.writeInt(removed.size());
+        for (String name : removed)
+            out.writeUTF(name);
+    }
+
+    static Delta readFrom(DataInput in) throws IOException
+    {
+        boolean full = in.readBoolean();
+        long baseGeneration = in.readLong();
+        long generation = in.readLong();
+
+        int registeredCount = in.readInt();
+        if (registeredCount < 0)
+            throw new IOException("Invalid prototype count: " + registeredCount);
+
+        Map<String, byte[]> registered = new LinkedHashMap<>();
+        for (int i = 0; i < registeredCount; i++) {
+            String name = in.readUTF();
+            int size = in.readInt();
+            if (size < 0 || size > MAX_PROTOTYPE_SIZE)
+                throw new IOException("Invalid size of prototype " + name + ": " + size);
+
+            byte[] data = new byte[size];
+            in.readFully(data);
+            registered.put(name, data);
+        }
+
+        int removedCount = in.readInt();
+        if (removedCount < 0)
+            throw new IOException("Invalid removed count: " + removedCount);
+
+        Set<String> removed = new HashSet<>();
+        for (int i = 0; i < removedCount; i++)
+            removed.add(in.readUTF());
+
+        return new Delta(full, baseGeneration, generation, registered, removed);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Delta[full=" + full + ", generations=" + baseGeneration + ".." + generation + ", registered="
+                + registered.size() + ", removed=" + removed.size() + "]";
+    }
+}
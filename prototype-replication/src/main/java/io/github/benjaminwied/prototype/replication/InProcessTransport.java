@@ -0,0 +1,137 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype.replication;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Replication transport connecting a publisher and followers within the same JVM, mainly intended for tests. Deltas are
+ * delivered asynchronously, on one thread per follower.
+ *
+ * @author Benjamin Wied
+ */
+public final class InProcessTransport
+{
+    private final CopyOnWriteArrayList<Client> clients = new CopyOnWriteArrayList<>();
+    private volatile ReplicationSource source;
+
+    /**
+     * @return the publisher side of this transport
+     */
+    public ReplicationServer server()
+    {
+        return new ReplicationServer()
+        {
+            @Override
+            public void start(ReplicationSource replicationSource)
+            {
+                source = Objects.requireNonNull(replicationSource, "source must not be null");
+            }
+
+            @Override
+            public void publish(Delta delta)
+            {
+                for (Client client : clients)
+                    client.deliver(delta);
+            }
+
+            @Override
+            public void close()
+            {
+                source = null;
+                for (Client client : clients)
+                    client.close();
+            }
+        };
+    }
+
+    /**
+     * @return a new follower side of this transport
+     */
+    public ReplicationClient client()
+    {
+        return new Client();
+    }
+
+    private final class Client implements ReplicationClient
+    {
+        private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "prototype-replication");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private volatile Consumer<Delta> consumer;
+        private volatile Consumer<Exception> onLost;
+
+        @Override
+        public Delta pull(long sinceGeneration) throws IOException
+        {
+            ReplicationSource currentSource = source;
+            if (currentSource == null)
+                throw new IOException("publisher not started");
+
+            return currentSource.pull(sinceGeneration);
+        }
+
+        @Override
+        public void subscribe(Consumer<Delta> deltaConsumer, Consumer<Exception> lostHandler)
+        {
+            consumer = Objects.requireNonNull(deltaConsumer, "consumer must not be null");
+            onLost = Objects.requireNonNull(lostHandler, "onLost must not be null");
+            clients.addIfAbsent(this);
+        }
+
+        void deliver(Delta delta)
+        {
+            if (!executor.isShutdown())
+                executor.execute(() -> accept(delta));
+        }
+
+        private void accept(Delta delta)
+        {
+            // Deltas queued before the subscription was lost are discarded
+            if (!clients.contains(this))
+                return;
+
+            try {
+                consumer.accept(delta);
+            } catch (RuntimeException e) {
+                clients.remove(this);
+                onLost.accept(e);
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            clients.remove(this);
+            executor.shutdown();
+        }
+    }
+}
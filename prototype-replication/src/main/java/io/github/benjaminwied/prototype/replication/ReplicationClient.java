@@ -0,0 +1,68 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype.replication;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Follower side of a replication transport.
+ *
+ * @author Benjamin Wied
+ *
+ * @see    ReplicationServer
+ */
+public interface ReplicationClient extends Closeable
+{
+    /**
+     * Requests a delta moving this follower from the given generation to the publisher's current generation.
+     *
+     * @param  sinceGeneration
+     *                         generation of the follower
+     *
+     * @return                 the catch-up delta
+     *
+     * @throws IOException
+     *                         if the publisher cannot be reached
+     */
+    Delta pull(long sinceGeneration) throws IOException;
+
+    /**
+     * Starts receiving deltas published after this call. Deltas are passed to the consumer in publication order.<br>
+     * <br>
+     * If the subscription is lost, e.g. because the publisher dropped this follower for falling behind, or because the
+     * consumer threw an exception, no further deltas are delivered and {@code onLost} is called with the cause. A new
+     * subscription may be started afterwards. Closing the client does not count as losing the subscription.
+     *
+     * @param  consumer
+     *                     consumer of published deltas
+     * @param  onLost
+     *                     called once if the subscription is lost
+     *
+     * @throws IOException
+     *                     if the publisher cannot be reached
+     */
+    void subscribe(Consumer<Delta> consumer, Consumer<Exception> onLost) throws IOException;
+}
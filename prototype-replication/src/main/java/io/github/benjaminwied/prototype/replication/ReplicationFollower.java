@@ -0,0 +1,224 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype.replication;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.benjaminwied.prototype.Prototype;
+import io.github.benjaminwied.prototype.PrototypeCodec;
+import io.github.benjaminwied.prototype.PrototypeManager;
+
+/**
+ * Applies deltas received from a {@link ReplicationPublisher} to a local {@link PrototypeManager}. Each delta is
+ * applied atomically using {@link PrototypeManager#update(java.util.Collection, java.util.Collection)} or
+ * {@link PrototypeManager#replaceAll(java.util.Collection)}. When joining, or after missing a delta, the follower
+ * catches up by pulling a delta from the publisher.<br>
+ * <br>
+ * If the subscription is lost, e.g. because the publisher dropped this follower for falling behind, or a delta cannot
+ * be decoded or applied, the follower resubscribes and catches up. If that fails as well, replication stops and the
+ * cause is reported by {@link #getFailure()}.
+ *
+ * @author Benjamin Wied
+ */
+public final class ReplicationFollower implements AutoCloseable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationFollower.class);
+
+    private final PrototypeManager manager;
+    private final PrototypeCodec codec;
+    private final ReplicationClient client;
+
+    private final List<Delta> pending = new ArrayList<>();
+    private boolean catchingUp;
+    private long generation = -1;
+    private Exception failure;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new {@code ReplicationFollower}.
+     *
+     * @param  manager
+     *                              manager to apply deltas to
+     * @param  codec
+     *                              codec used to deserialize prototypes
+     * @param  client
+     *                              transport to receive deltas from
+     *
+     * @throws NullPointerException
+     *                              if any argument is null
+     */
+    public ReplicationFollower(PrototypeManager manager, PrototypeCodec codec, ReplicationClient client)
+    {
+        this.manager = Objects.requireNonNull(manager, "manager must not be null");
+        this.codec = Objects.requireNonNull(codec, "codec must not be null");
+        this.client = Objects.requireNonNull(client, "client must not be null");
+    }
+
+    /**
+     * Subscribes to published deltas and catches up with the publisher.
+     *
+     * @throws IOException
+     *                     if the publisher cannot be reached
+     */
+    public void start() throws IOException
+    {
+        synchronized (this) {
+            catchingUp = true;
+        }
+
+        client.subscribe(this::receive, this::lost);
+        catchUp();
+    }
+
+    /**
+     * @return the publisher generation this follower has replicated, or -1 if it has not caught up yet
+     */
+    public synchronized long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Returns the failure which stopped replication after the subscription was lost and could not be restored. The
+     * failure is cleared once the follower catches up again.
+     *
+     * @return an Optional containing the failure, or an empty Optional if this follower is replicating
+     */
+    public synchronized Optional<Exception> getFailure()
+    {
+        return Optional.ofNullable(failure);
+    }
+
+    private void catchUp() throws IOException
+    {
+        long since;
+        synchronized (this) {
+            catchingUp = true;
+            since = generation;
+        }
+
+        Delta delta;
+        try {
+            delta = client.pull(since);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                catchingUp = false;
+                pending.clear();
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            catchingUp = false;
+            List<Delta> received = new ArrayList<>(pending);
+            pending.clear();
+            apply(delta);
+            failure = null;
+
+            for (Delta pendingDelta : received)
+                receive(pendingDelta);
+        }
+    }
+
+    private void receive(Delta delta)
+    {
+        synchronized (this) {
+            if (catchingUp) {
+                pending.add(delta);
+                return;
+            }
+            if (delta.isFull() || delta.getBaseGeneration() <= generation) {
+                apply(delta);
+                return;
+            }
+        }
+
+        LOGGER.info(Prototype.LOG_MARKER, "Missed deltas before {}, catching up", delta);
+        try {
+            catchUp();
+        } catch (IOException e) {
+            // Ends the subscription, so it is restored by lost
+            throw new UncheckedIOException("Failed to catch up with publisher", e);
+        }
+    }
+
+    private void lost(Exception cause)
+    {
+        if (closed)
+            return;
+
+        LOGGER.warn(Prototype.LOG_MARKER, "Lost replication subscription at generation {}, resubscribing",
+                getGeneration());
+        try {
+            start();
+        } catch (IOException | RuntimeException e) {
+            e.addSuppressed(cause);
+            synchronized (this) {
+                failure = e;
+            }
+            LOGGER.error(Prototype.LOG_MARKER, "Replication stopped", e);
+        }
+    }
+
+    private void apply(Delta delta)
+    {
+        if (!delta.isFull() && delta.getGeneration() <= generation)
+            return;
+
+        List<Prototype<?>> registered = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : delta.getRegistered().entrySet())
+            registered.add(codec.decode(entry.getKey(), ByteBuffer.wrap(entry.getValue())));
+
+        if (delta.isFull())
+            manager.replaceAll(registered);
+        else
+            manager.update(registered, delta.getRemoved());
+
+        generation = delta.getGeneration();
+        LOGGER.debug(Prototype.LOG_MARKER, "Applied {}", delta);
+    }
+
+    /**
+     * Stops receiving deltas and closes the transport.
+     *
+     * @throws IOException
+     *                     if the transport cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        client.close();
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype.replication;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.benjaminwied.prototype.Prototype;
+import io.github.benjaminwied.prototype.PrototypeCodec;
+import io.github.benjaminwied.prototype.PrototypeManager;
+import io.github.benjaminwied.prototype.RegistryChange;
+import io.github.benjaminwied.prototype.RegistrySnapshot;
+import io.github.benjaminwied.prototype.Subscription;
+
+/**
+ * Publishes the state of a {@link PrototypeManager} to followers. Each modification of the manager is sent as a
+ * generation-numbered {@link Delta}. A bounded history of deltas is kept, so that followers can catch up by pulling a
+ * delta instead of a full snapshot.<br>
+ * <br>
+ * Deltas carry the state of a prototype at the time the delta is created, which may be newer than the delta's
+ * generation. Applying deltas is idempotent, so followers still converge to the publisher's state.
+ *
+ * @author Benjamin Wied
+ *
+ * @see    ReplicationFollower
+ */
+public final class ReplicationPublisher implements ReplicationSource, AutoCloseable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationPublisher.class);
+
+    private final PrototypeManager manager;
+    private final PrototypeCodec codec;
+    private final ReplicationServer server;
+    private final int historySize;
+
+    private final Deque<Delta> history = new ArrayDeque<>();
+    private long generation;
+    private Subscription subscription;
+
+    /**
+     * Constructs a new {@code ReplicationPublisher}.
+     *
+     * @param  manager
+     *                                  manager to publish
+     * @param  codec
+     *                                  codec used to serialize prototypes
+     * @param  server
+     *                                  transport to publish on
+     * @param  historySize
+     *                                  maximum number of deltas kept for catch-up requests
+     *
+     * @throws NullPointerException
+     *                                  if manager, codec or server is null
+     * @throws IllegalArgumentException
+     *                                  if historySize is negative
+     */
+    public ReplicationPublisher(
+            PrototypeManager manager, PrototypeCodec codec, ReplicationServer server, int historySize
+    )
+    {
+        if (historySize < 0)
+            throw new IllegalArgumentException("historySize must not be negative: " + historySize);
+
+        this.manager = Objects.requireNonNull(manager, "manager must not be null");
+        this.codec = Objects.requireNonNull(codec, "codec must not be null");
+        this.server = Objects.requireNonNull(server, "server must not be null");
+        this.historySize = historySize;
+    }
+
+    /**
+     * Starts publishing modifications of the manager and serving followers.
+     *
+     * @throws IOException
+     *                     if the transport cannot be started
+     */
+    public synchronized void start() throws IOException
+    {
+        if (subscription != null)
+            throw new IllegalStateException("publisher already started");
+
+        subscription = manager.subscribe(this::onChange);
+        generation = manager.getGeneration();
+        server.start(this);
+    }
+
+    /**
+     * @return the generation of the last published delta
+     */
+    public synchronized long getGeneration()
+    {
+        return generation;
+    }
+
+    private synchronized void onChange(RegistryChange change)
+    {
+        if (change.getGeneration() <= generation)
+            return;
+
+        Map<String, byte[]> registered = new HashMap<>();
+        Set<String> removed = new HashSet<>(change.getRemoved());
+        Set<String> names = new HashSet<>(change.getAdded());
+        names.addAll(change.getReplaced());
+
+        for (String name : names) {
+            Optional<Prototype<Object>> prototype = manager.getPrototype(name);
+            if (prototype.isPresent()) {
+                registered.put(name, codec.encode(prototype.get()));
+                removed.remove(name);
+            } else
+                removed.add(name);
+        }
+
+        Delta delta = Delta.incremental(generation, change.getGeneration(), registered, removed);
+        generation = change.getGeneration();
+
+        history.addLast(delta);
+        while (history.size() > historySize)
+            history.removeFirst();
+
+        LOGGER.debug(Prototype.LOG_MARKER, "Publishing {}", delta);
+        server.publish(delta);
+    }
+
+    @Override
+    public synchronized Delta pull(long sinceGeneration)
+    {
+        if (sinceGeneration >= generation)
+            return Delta.incremental(sinceGeneration, sinceGeneration, Map.of(), Set.of());
+
+        Delta merged = null;
+        for (Iterator<Delta> iterator = history.iterator(); iterator.hasNext();) {
+            Delta delta = iterator.next();
+            if (merged != null)
+                merged = merged.merge(delta);
+            else if (delta.getBaseGeneration() == sinceGeneration)
+                merged = delta;
+        }
+
+        return merged != null ? merged : snapshot();
+    }
+
+    /**
+     * Creates a full snapshot of the manager.
+     *
+     * @return the snapshot
+     */
+    public Delta snapshot()
+    {
+        Map<String, byte[]> prototypes = new HashMap<>();
+        RegistrySnapshot snapshot = manager.snapshot();
+        for (Prototype<?> prototype : snapshot.getPrototypes())
+            prototypes.put(prototype.name(), codec.encode(prototype));
+
+        LOGGER.debug(Prototype.LOG_MARKER, "Created snapshot of {} prototypes", prototypes.size());
+        return Delta.snapshot(snapshot.getGeneration(), prototypes);
+    }
+
+    /**
+     * Stops publishing and closes the transport.
+     *
+     * @throws IOException
+     *                     if the transport cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (subscription != null)
+            subscription.close();
+        server.close();
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype.replication;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Publisher side of a replication transport.
+ *
+ * @author Benjamin Wied
+ *
+ * @see    ReplicationClient
+ */
+public interface ReplicationServer extends Closeable
+{
+    /**
+     * Starts serving followers, answering catch-up requests using the given source.
+     *
+     * @param  source
+     *                     source of catch-up deltas
+     *
+     * @throws IOException
+     *                     if the transport cannot be started
+     */
+    void start(ReplicationSource source) throws IOException;
+
+    /**
+     * Sends the given delta to all connected followers. Delivery to each follower preserves publication order.
+     * Implementations must not block on slow followers, as this is called while the publisher holds its lock.
+     *
+     * @param delta
+     *              delta to send
+     */
+    void publish(Delta delta);
+}
@@ -0,0 +1,160 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype.replication;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.benjaminwied.prototype.Prototype;
+
+/**
+ * Follower side of a TCP socket transport.
+ *
+ * @author Benjamin Wied
+ *
+ * @see    SocketReplicationServer
+ */
+public final class SocketReplicationClient implements ReplicationClient
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(SocketReplicationClient.class);
+
+    private final SocketAddress address;
+    private Socket subscription;
+
+    /**
+     * Constructs a new {@code SocketReplicationClient} connecting to the loopback address.
+     *
+     * @param port
+     *             port of the publisher
+     */
+    public SocketReplicationClient(int port)
+    {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Constructs a new {@code SocketReplicationClient}.
+     *
+     * @param  address
+     *                              address of the publisher
+     *
+     * @throws NullPointerException
+     *                              if address is null
+     */
+    public SocketReplicationClient(SocketAddress address)
+    {
+        this.address = Objects.requireNonNull(address, "address must not be null");
+    }
+
+    @Override
+    public Delta pull(long sinceGeneration) throws IOException
+    {
+        try (Socket socket = new Socket()) {
+            socket.connect(address);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.write(SocketReplicationServer.PULL);
+            out.writeLong(sinceGeneration);
+            out.flush();
+
+            return Delta.readFrom(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<Delta> consumer, Consumer<Exception> onLost) throws IOException
+    {
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        Objects.requireNonNull(onLost, "onLost must not be null");
+        if (subscription != null)
+            throw new IllegalStateException("already subscribed");
+
+        Socket socket = new Socket();
+        socket.connect(address);
+        socket.getOutputStream().write(SocketReplicationServer.SUBSCRIBE);
+        socket.getOutputStream().flush();
+        subscription = socket;
+
+        Thread reader = new Thread(() -> read(socket, consumer, onLost), "prototype-replication-client");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void read(Socket socket, Consumer<Delta> consumer, Consumer<Exception> onLost)
+    {
+        Exception cause;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            while (true)
+                consumer.accept(Delta.readFrom(in));
+        } catch (IOException | RuntimeException e) {
+            cause = e;
+        }
+
+        synchronized (this) {
+            // A socket closed by close() is not lost
+            if (socket.isClosed())
+                return;
+
+            closeQuietly(socket);
+            if (subscription == socket)
+                subscription = null;
+        }
+
+        if (cause instanceof EOFException)
+            LOGGER.warn(Prototype.LOG_MARKER, "Replication subscription closed by publisher");
+        else
+            LOGGER.warn(Prototype.LOG_MARKER, "Replication subscription failed", cause);
+        onLost.accept(cause);
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (subscription != null) {
+            subscription.close();
+            subscription = null;
+        }
+    }
+
+    private static void closeQuietly(Socket socket)
+    {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.trace(Prototype.LOG_MARKER, "Failed to close replication subscription", e);
+        }
+    }
+}
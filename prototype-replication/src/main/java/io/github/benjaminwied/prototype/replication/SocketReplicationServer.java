@@ -0,0 +1,236 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype.replication;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.benjaminwied.prototype.Prototype;
+
+/**
+ * Publisher side of a TCP socket transport. Each connection either pulls a single catch-up delta, or subscribes to all
+ * subsequently published deltas.<br>
+ * <br>
+ * Each subscriber has its own bounded queue, which is written to the socket by a dedicated thread, so publishing never
+ * blocks on the network. Subscribers falling behind by more than the queue capacity are disconnected.
+ *
+ * @author Benjamin Wied
+ *
+ * @see    SocketReplicationClient
+ */
+public final class SocketReplicationServer implements ReplicationServer
+{
+    static final int PULL = 'P';
+    static final int SUBSCRIBE = 'S';
+    static final int QUEUE_CAPACITY = 1024;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SocketReplicationServer.class);
+
+    private final SocketAddress address;
+    private final List<Connection> subscribers = new CopyOnWriteArrayList<>();
+    private ServerSocket serverSocket;
+    private volatile ReplicationSource source;
+
+    /**
+     * Constructs a new {@code SocketReplicationServer} listening on the loopback address.
+     *
+     * @param port
+     *             port to listen on, or 0 to choose a free port
+     */
+    public SocketReplicationServer(int port)
+    {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Constructs a new {@code SocketReplicationServer}.
+     *
+     * @param  address
+     *                              address to listen on
+     *
+     * @throws NullPointerException
+     *                              if address is null
+     */
+    public SocketReplicationServer(SocketAddress address)
+    {
+        this.address = Objects.requireNonNull(address, "address must not be null");
+    }
+
+    @Override
+    public synchronized void start(ReplicationSource replicationSource) throws IOException
+    {
+        source = Objects.requireNonNull(replicationSource, "source must not be null");
+        serverSocket = new ServerSocket();
+        serverSocket.bind(address);
+
+        Thread acceptor = new Thread(this::accept, "prototype-replication-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return the port this server listens on
+     *
+     * @throws IllegalStateException
+     *                               if the server was not started
+     */
+    public synchronized int getPort()
+    {
+        if (serverSocket == null)
+            throw new IllegalStateException("server not started");
+
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept()
+    {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread handler = new Thread(() -> handle(socket), "prototype-replication-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed())
+                    LOGGER.error(Prototype.LOG_MARKER, "Failed to accept replication connection", e);
+            }
+        }
+    }
+
+    private void handle(Socket socket)
+    {
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            Connection connection = new Connection(socket);
+
+            int request = in.read();
+            if (request == PULL) {
+                connection.send(source.pull(in.readLong()));
+                socket.close();
+            } else if (request == SUBSCRIBE) {
+                subscribers.add(connection);
+                connection.write();
+            } else
+                socket.close();
+        } catch (IOException e) {
+            LOGGER.warn(Prototype.LOG_MARKER, "Replication connection failed", e);
+            closeQuietly(socket);
+        }
+    }
+
+    @Override
+    public void publish(Delta delta)
+    {
+        for (Connection connection : subscribers) {
+            if (!connection.queue.offer(delta)) {
+                LOGGER.warn(Prototype.LOG_MARKER, "Dropping replication subscriber falling behind");
+                drop(connection);
+            }
+        }
+    }
+
+    private void drop(Connection connection)
+    {
+        subscribers.remove(connection);
+        closeQuietly(connection.socket);
+
+        Thread writer = connection.writer;
+        if (writer != null && writer != Thread.currentThread())
+            writer.interrupt();
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        for (Connection connection : subscribers)
+            drop(connection);
+
+        if (serverSocket != null)
+            serverSocket.close();
+    }
+
+    private static void closeQuietly(Socket socket)
+    {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.trace(Prototype.LOG_MARKER, "Failed to close replication connection", e);
+        }
+    }
+
+    private final class Connection
+    {
+        final Socket socket;
+        final DataOutputStream out;
+        final BlockingQueue<Delta> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        volatile Thread writer;
+
+        Connection(Socket socket) throws IOException
+        {
+            this.socket = socket;
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        void send(Delta delta) throws IOException
+        {
+            delta.writeTo(out);
+            out.flush();
+        }
+
+        /**
+         * Writes queued deltas until the connection fails or is dropped. Runs on the connection's handler thread.
+         */
+        void write()
+        {
+            writer = Thread.currentThread();
+            try {
+                while (!socket.isClosed())
+                    send(queue.take());
+            } catch (IOException e) {
+                if (!socket.isClosed())
+                    LOGGER.warn(Prototype.LOG_MARKER, "Dropping replication subscriber", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                drop(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototypetest;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.benjaminwied.prototype.JavaSerializationCodec;
+import io.github.benjaminwied.prototype.Prototype;
+import io.github.benjaminwied.prototype.PrototypeCodec;
+import io.github.benjaminwied.prototype.PrototypeException;
+import io.github.benjaminwied.prototype.PrototypeManager;
+import io.github.benjaminwied.prototype.replication.Delta;
+import io.github.benjaminwied.prototype.replication.InProcessTransport;
+import io.github.benjaminwied.prototype.replication.ReplicationClient;
+import io.github.benjaminwied.prototype.replication.ReplicationFollower;
+import io.github.benjaminwied.prototype.replication.ReplicationPublisher;
+import io.github.benjaminwied.prototype.replication.ReplicationServer;
+import io.github.benjaminwied.prototype.replication.SocketReplicationClient;
+import io.github.benjaminwied.prototype.replication.SocketReplicationServer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings({ "javadoc", "static-method" })
+class ReplicationTest
+{
+    static class ValuePrototype implements Prototype<String>, Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        final String name;
+        final String value;
+
+        ValuePrototype(String name, String value)
+        {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public String name()
+        {
+            return name;
+        }
+
+        @Override
+        public String build()
+        {
+            return value;
+        }
+    }
+
+    @Test
+    void testInProcessReplication() throws IOException
+    {
+        InProcessTransport transport = new InProcessTransport();
+        verifyReplication(transport.server(), transport::client);
+    }
+
+    @Test
+    void testSocketReplication() throws IOException
+    {
+        SocketReplicationServer server = new SocketReplicationServer(0);
+        verifyReplication(server, () -> new SocketReplicationClient(server.getPort()));
+    }
+
+    @Test
+    void testDeltaCatchUp() throws IOException
+    {
+        PrototypeManager source = new PrototypeManager();
+        source.register(new ValuePrototype("a", "a"));
+
+        InProcessTransport transport = new InProcessTransport();
+        try (ReplicationPublisher publisher = new ReplicationPublisher(
+                source, new JavaSerializationCodec(), transport.server(), 16
+        )) {
+            publisher.start();
+            long joined = publisher.getGeneration();
+            source.register(new ValuePrototype("b", "b"));
+            source.unregister("a");
+            awaitTrue(() -> publisher.getGeneration() == source.getGeneration());
+
+            Delta delta = publisher.pull(joined);
+            assertFalse(delta.isFull(), "snapshot sent instead of delta");
+            assertEquals(Set.of("b"), delta.getRegistered().keySet(), "wrong registered names");
+            assertEquals(Set.of("a"), delta.getRemoved(), "wrong removed names");
+            assertTrue(publisher.pull(-1).isFull(), "unknown generation not answered with snapshot");
+        }
+    }
+
+    @Test
+    void testResubscription() throws IOException
+    {
+        AtomicBoolean failNext = new AtomicBoolean();
+        JavaSerializationCodec codec = new JavaSerializationCodec();
+        PrototypeCodec failingCodec = new PrototypeCodec()
+        {
+            @Override
+            public byte[] encode(Prototype<?> prototype)
+            {
+                return codec.encode(prototype);
+            }
+
+            @Override
+            public Prototype<?> decode(String name, ByteBuffer data)
+            {
+                if (failNext.getAndSet(false))
+                    throw new PrototypeException("corrupt prototype");
+                return codec.decode(name, data);
+            }
+        };
+
+        PrototypeManager source = new PrototypeManager();
+        PrototypeManager target = new PrototypeManager();
+        InProcessTransport transport = new InProcessTransport();
+        try (ReplicationPublisher publisher = new ReplicationPublisher(source, codec, transport.server(), 16)) {
+            publisher.start();
+
+            try (ReplicationFollower follower = new ReplicationFollower(target, failingCodec, transport.client())) {
+                follower.start();
+                failNext.set(true);
+                source.register(new ValuePrototype("a", "a"));
+                awaitTrue(() -> follower.getGeneration() == source.getGeneration());
+
+                assertEquals(Set.of("a"), target.keys(), "failed delta not caught up");
+                assertFalse(follower.getFailure().isPresent(), "recovered follower reported failure");
+            }
+        }
+    }
+
+    private interface ClientFactory
+    {
+        ReplicationClient create() throws IOException;
+    }
+
+    private static void verifyReplication(ReplicationServer server, ClientFactory clients) throws IOException
+    {
+        JavaSerializationCodec codec = new JavaSerializationCodec();
+        PrototypeManager source = new PrototypeManager();
+        source.register(new ValuePrototype("initial", "initial"));
+
+        PrototypeManager target = new PrototypeManager();
+        target.register(new ValuePrototype("stale", "stale"));
+
+        try (ReplicationPublisher publisher = new ReplicationPublisher(source, codec, server, 16)) {
+            publisher.start();
+
+            try (ReplicationFollower follower = new ReplicationFollower(target, codec, clients.create())) {
+                follower.start();
+                assertEquals(Set.of("initial"), target.keys(), "snapshot not applied");
+
+                verifyDeltas(source, target, follower);
+            }
+        }
+    }
+
+    private static void verifyDeltas(PrototypeManager source, PrototypeManager target, ReplicationFollower follower)
+    {
+        Map<String, Prototype<?>> batch = Map.of("a", new ValuePrototype("a", "1"), "b", new ValuePrototype("b", "2"));
+        source.registerAll(batch);
+        source.register(new ValuePrototype("a", "replaced"));
+        source.unregister("initial");
+        awaitTrue(() -> follower.getGeneration() == source.getGeneration());
+
+        assertEquals(Set.of("a", "b"), target.keys(), "deltas not applied");
+        assertEquals("replaced", target.createType("a"), "replacement not applied");
+        assertEquals(2, target.prototypesOfClass(ValuePrototype.class).size(), "indexes not updated");
+    }
+
+    private static void awaitTrue(BooleanSupplier condition)
+    {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline)
+                throw new AssertionError("condition not reached in time");
+            Thread.onSpinWait();
+        }
+    }
+}
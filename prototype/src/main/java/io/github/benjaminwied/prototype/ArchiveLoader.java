@@ -0,0 +1,319 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads prototypes from zip archives, jar files and directories. Archives are mounted as a
+ * {@link java.nio.file.FileSystem FileSystem} instead of being extracted, and their entries are read and parsed in
+ * parallel. Entries stored without compression are read directly from a memory mapping of the archive.<br>
+ * <br>
+ * All prototypes loaded by a single call are registered in one {@link PrototypeManager#update(Collection, Collection)
+ * atomic update}. If any entry fails to load, no prototype is registered. Instances are immutable, use the
+ * {@code with*} methods to derive a loader with different options.
+ *
+ * @author Benjamin Wied
+ *
+ * @see    PrototypeParser
+ */
+public final class ArchiveLoader
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArchiveLoader.class);
+
+    private final PrototypeParser parser;
+    private final Predicate<String> filter;
+    private final int parallelism;
+
+    /**
+     * Constructs a new {@code ArchiveLoader} parsing all entries using the given parser, using one thread per available
+     * processor.
+     *
+     * @param  parser
+     *                              parser to use
+     *
+     * @throws NullPointerException
+     *                              if parser is null
+     */
+    public ArchiveLoader(PrototypeParser parser)
+    {
+        this(Objects.requireNonNull(parser, "parser must not be null"), name -> true,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    private ArchiveLoader(PrototypeParser parser, Predicate<String> filter, int parallelism)
+    {
+        this.parser = parser;
+        this.filter = filter;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns a loader only parsing entries whose name matches the given filter, e.g.
+     * {@code name -> name.endsWith(".json")}.
+     *
+     * @param  filter
+     *                              entry name filter
+     *
+     * @return                      the derived loader
+     *
+     * @throws NullPointerException
+     *                              if filter is null
+     */
+    public ArchiveLoader withFilter(Predicate<String> filter)
+    {
+        return new ArchiveLoader(parser, Objects.requireNonNull(filter, "filter must not be null"), parallelism);
+    }
+
+    /**
+     * Returns a loader reading and parsing entries using the given number of threads.
+     *
+     * @param  parallelism
+     *                                  number of threads
+     *
+     * @return                          the derived loader
+     *
+     * @throws IllegalArgumentException
+     *                                  if parallelism is not positive
+     */
+    public ArchiveLoader withParallelism(int parallelism)
+    {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+
+        return new ArchiveLoader(parser, filter, parallelism);
+    }
+
+    /**
+     * Loads all entries of the given zip archives, jar files or directories and registers the prototypes with the
+     * given manager. If several entries define a prototype with the same name, the last archive wins.
+     *
+     * @param  manager
+     *                             manager to register prototypes with
+     * @param  archives
+     *                             paths to zip archives, jar files or directories
+     *
+     * @return                     a report containing the load time of each archive
+     *
+     * @throws IOException
+     *                             if an archive or entry could not be read
+     * @throws PrototypeException
+     *                             if an entry could not be parsed
+     * @throws NullPointerException
+     *                             if manager or archives is null
+     */
+    public LoadReport load(PrototypeManager manager, Collection<Path> archives) throws IOException
+    {
+        Objects.requireNonNull(manager, "manager must not be null");
+        Objects.requireNonNull(archives, "archives must not be null");
+
+        List<MountedArchive> mounted = new ArrayList<>();
+        try {
+            for (Path archive : archives)
+                mounted.add(MountedArchive.open(archive, ""));
+
+            return load(manager, mounted);
+        } finally {
+            close(mounted);
+        }
+    }
+
+    /**
+     * Loads all resources below the given directory of the class path and registers the prototypes with the given
+     * manager. Resources may be located in jar files or directories. Jar files are not extracted.
+     *
+     * @param  manager
+     *                             manager to register prototypes with
+     * @param  classLoader
+     *                             class loader to look up resources with
+     * @param  directory
+     *                             resource directory, e.g. {@code "prototypes"}
+     *
+     * @return                     a report containing the load time of each jar file or directory
+     *
+     * @throws IOException
+     *                             if a resource could not be read, or is not located in a jar file or directory
+     * @throws PrototypeException
+     *                             if a resource could not be parsed
+     * @throws NullPointerException
+     *                             if any argument is null
+     */
+    public LoadReport loadResources(PrototypeManager manager, ClassLoader classLoader, String directory)
+            throws IOException
+    {
+        Objects.requireNonNull(manager, "manager must not be null");
+        Objects.requireNonNull(classLoader, "classLoader must not be null");
+        Objects.requireNonNull(directory, "directory must not be null");
+
+        List<MountedArchive> mounted = new ArrayList<>();
+        try {
+            for (URL url : Collections.list(classLoader.getResources(directory)))
+                mounted.add(mountResource(url));
+
+            return load(manager, mounted);
+        } finally {
+            close(mounted);
+        }
+    }
+
+    private static MountedArchive mountResource(URL url) throws IOException
+    {
+        try {
+            if (url.getProtocol().equals("file"))
+                return MountedArchive.open(Path.of(url.toURI()), "");
+
+            if (url.getProtocol().equals("jar")) {
+                String spec = url.toURI().getSchemeSpecificPart();
+                int separator = spec.indexOf("!/");
+                Path jar = Path.of(new URI(spec.substring(0, separator)));
+                return MountedArchive.open(jar, spec.substring(separator + 2));
+            }
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            throw new IOException("Unsupported resource location " + url, e);
+        }
+
+        throw new IOException("Unsupported resource location " + url);
+    }
+
+    private LoadReport load(PrototypeManager manager, List<MountedArchive> archives) throws IOException
+    {
+        long start = System.nanoTime();
+        Map<String, Duration> archiveTimes = new ConcurrentHashMap<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "prototype-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Prototype<?>> prototypes = new ArrayList<>();
+        try {
+            List<CompletableFuture<List<Prototype<?>>>> results = new ArrayList<>();
+            for (MountedArchive archive : archives)
+                results.add(load(archive, executor, archiveTimes));
+
+            for (CompletableFuture<List<Prototype<?>>> result : results)
+                prototypes.addAll(join(result));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        manager.update(prototypes, Set.of());
+
+        Duration totalTime = Duration.ofNanos(System.nanoTime() - start);
+        LoadReport report = new LoadReport(archiveTimes, prototypes.size(), totalTime);
+        LOGGER.info(Prototype.LOG_MARKER, "Loaded prototypes: {}", report);
+        return report;
+    }
+
+    private CompletableFuture<List<Prototype<?>>> load(
+            MountedArchive archive, ExecutorService executor, Map<String, Duration> archiveTimes
+    ) throws IOException
+    {
+        long start = System.nanoTime();
+
+        List<CompletableFuture<Collection<? extends Prototype<?>>>> entries = new ArrayList<>();
+        for (Path entry : archive.entries(filter))
+            entries.add(CompletableFuture.supplyAsync(() -> parse(archive, entry), executor));
+
+        return CompletableFuture.allOf(entries.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            List<Prototype<?>> prototypes = new ArrayList<>();
+            for (CompletableFuture<Collection<? extends Prototype<?>>> entry : entries)
+                prototypes.addAll(entry.join());
+
+            archiveTimes.put(archive.label(), Duration.ofNanos(System.nanoTime() - start));
+            return prototypes;
+        });
+    }
+
+    private Collection<? extends Prototype<?>> parse(MountedArchive archive, Path entry)
+    {
+        String entryName = archive.entryName(entry);
+        ByteBuffer content;
+        try {
+            content = archive.read(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            return Objects.requireNonNull(parser.parse(entryName, content), "parser returned null");
+        } catch (IOException | RuntimeException e) {
+            throw new PrototypeException("Failed to load " + entryName + " from " + archive.label(), e);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws IOException
+    {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io)
+                throw io.getCause();
+            if (e.getCause() instanceof RuntimeException runtime)
+                throw runtime;
+            throw e;
+        }
+    }
+
+    private static void close(List<MountedArchive> archives) throws IOException
+    {
+        IOException failure = null;
+        for (MountedArchive archive : archives) {
+            try {
+                archive.close();
+            } catch (IOException e) {
+                if (failure == null)
+                    failure = e;
+                else
+                    failure.addSuppressed(e);
+            }
+        }
+
+        if (failure != null)
+            throw failure;
+    }
+}
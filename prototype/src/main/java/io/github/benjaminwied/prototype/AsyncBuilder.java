@@ -0,0 +1,186 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link Prototype#build()} asynchronously. Concurrent builds of the same {@link Prototype#memoizable()
+ * memoizable} prototype are coalesced into a single in-flight build (single-flight). Builds are identified by name and
+ * registry generation rather than by prototype instance, as storages may return a new instance for each lookup.
+ *
+ * @author Benjamin Wied
+ *
+ * @see    PrototypeManager#createTypeAsync(String)
+ */
+final class AsyncBuilder
+{
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private volatile Executor executor;
+
+    AsyncBuilder()
+    {
+        executor = defaultExecutor();
+    }
+
+    Executor getExecutor()
+    {
+        return executor;
+    }
+
+    void setExecutor(Executor executor)
+    {
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> build(String name, long generation, Prototype<T> prototype)
+    {
+        Flight flight;
+        if (prototype.memoizable())
+            flight = join(name, generation, prototype);
+        else
+            submit(flight = new Flight(name, generation, prototype, false));
+
+        CompletableFuture<Object> waiter = flight.future.copy();
+        waiter.whenComplete((result, error) -> {
+            if (!flight.future.isDone())
+                leave(flight);
+        });
+        return (CompletableFuture<T>) waiter;
+    }
+
+    private Flight join(String name, long generation, Prototype<?> prototype)
+    {
+        Flight[] created = new Flight[1];
+        Flight flight = inFlight.compute(name, (key, current) -> {
+            if (current == null || current.generation != generation || current.future.isDone())
+                current = created[0] = new Flight(name, generation, prototype, true);
+
+            current.waiters++;
+            return current;
+        });
+
+        if (flight == created[0]) {
+            flight.future.whenComplete((result, error) -> inFlight.remove(name, flight));
+            submit(flight);
+        }
+
+        return flight;
+    }
+
+    private void leave(Flight flight)
+    {
+        if (!flight.shared) {
+            flight.future.cancel(false);
+            return;
+        }
+
+        inFlight.computeIfPresent(flight.name, (key, current) -> {
+            if (current != flight || --current.waiters > 0)
+                return current;
+
+            current.future.cancel(false);
+            return null;
+        });
+    }
+
+    private void submit(Flight flight)
+    {
+        try {
+            executor.execute(flight::run);
+        } catch (RejectedExecutionException e) {
+            flight.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Returns the default build executor. This uses virtual threads if the runtime supports them, and a cached pool of
+     * daemon threads otherwise.
+     *
+     * @return the default build executor
+     */
+    static Executor defaultExecutor()
+    {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    private static final class DefaultExecutorHolder
+    {
+        static final Executor EXECUTOR = createDefaultExecutor();
+
+        private static Executor createDefaultExecutor()
+        {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                AtomicInteger threadCount = new AtomicInteger();
+                return Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, "prototype-build-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+
+    private static final class Flight
+    {
+        final String name;
+        final long generation;
+        final Prototype<?> prototype;
+        final boolean shared;
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        /* guarded by the inFlight map entry */
+        int waiters;
+
+        Flight(String name, long generation, Prototype<?> prototype, boolean shared)
+        {
+            this.name = name;
+            this.generation = generation;
+            this.prototype = prototype;
+            this.shared = shared;
+        }
+
+        void run()
+        {
+            if (future.isDone())
+                return;
+
+            try {
+                future.complete(prototype.build());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+}
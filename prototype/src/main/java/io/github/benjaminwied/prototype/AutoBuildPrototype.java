@@ -0,0 +1,264 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * {@link Prototype} building its type by passing its public fields to a constructor of the type. Instead of writing
+ * {@link #build()} by hand, fields are matched by name to the parameters of a constructor of the type parameter
+ * {@code T}:
+ * <ul>
+ * <li>If {@code T} is a record, its canonical constructor is used.
+ * <li>Otherwise, the constructor with the most parameters whose names all match a public field is used. It must take
+ * all public fields, and no other constructor may take the same number of them. This requires {@code T} to be
+ * compiled with {@code -parameters}.
+ * </ul>
+ * Matching is done once per prototype class. The result is a {@link MethodHandle} reading the fields and invoking the
+ * constructor directly, so that builds do not use reflection. The handle is bound to a hidden class as a constant, so
+ * the JIT compiler inlines the field reads and the constructor call like those of a hand-written {@link #build()}.
+ * Compared to that, a build only adds one virtual call.<br>
+ * <br>
+ * Subclasses must bind {@code T} to a concrete class, e.g. {@code class MyPrototype extends
+ * AutoBuildPrototype<MyClass>}. Non-public prototype classes or types require a lookup with access to them, see
+ * {@link #AutoBuildPrototype(MethodHandles.Lookup)}.
+ *
+ * @author     Benjamin Wied
+ *
+ * @param  <T>
+ *             type which is represented by this Prototype
+ */
+public abstract class AutoBuildPrototype<T> implements Prototype<T>
+{
+    private static final ClassValue<Builder> BUILDERS = new ClassValue<>()
+    {
+        @Override
+        protected Builder computeValue(Class<?> type)
+        {
+            return new Builder();
+        }
+    };
+
+    private final MethodHandles.Lookup lookup;
+    // Racy single-check, builders are stateless and shared by all instances of a class
+    private transient Function<Object, Object> builder;
+
+    /**
+     * Constructs a new {@code AutoBuildPrototype} accessing fields and constructors using
+     * {@link MethodHandles#publicLookup()}.
+     */
+    protected AutoBuildPrototype()
+    {
+        this(MethodHandles.publicLookup());
+    }
+
+    /**
+     * Constructs a new {@code AutoBuildPrototype} accessing fields and constructors using the given lookup. Pass
+     * {@code MethodHandles.lookup()} to allow access to non-public classes of the subclass' package.
+     *
+     * @param  lookup
+     *                              lookup used to access fields and constructors
+     *
+     * @throws NullPointerException
+     *                              if lookup is null
+     */
+    protected AutoBuildPrototype(MethodHandles.Lookup lookup)
+    {
+        this.lookup = Objects.requireNonNull(lookup, "lookup must not be null");
+    }
+
+    /**
+     * Builds this prototype by passing the matching public fields to the constructor of {@code T}.
+     *
+     * @throws PrototypeException
+     *                            if no matching constructor exists, or it cannot be accessed
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public T build()
+    {
+        Function<Object, Object> current = builder;
+        if (current == null)
+            builder = current = BUILDERS.get(getClass()).builder(getClass(), lookup);
+
+        try {
+            return (T) current.apply(this);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new PrototypeException("Failed to build prototype " + name(), t);
+        }
+    }
+
+    /**
+     * Lazily created builder of a prototype class.
+     */
+    private static final class Builder
+    {
+        private volatile Function<Object, Object> builder;
+
+        Function<Object, Object> builder(Class<?> prototypeClass, MethodHandles.Lookup lookup)
+        {
+            Function<Object, Object> current = builder;
+            if (current == null)
+                builder = current = ConstantHandles.asFunction(createHandle(prototypeClass, lookup));
+
+            return current;
+        }
+    }
+
+    /**
+     * Creates a handle of type {@code (Object)Object}, reading the matching fields of a prototype and passing them to
+     * the constructor.
+     */
+    private static MethodHandle createHandle(Class<?> prototypeClass, MethodHandles.Lookup lookup)
+    {
+        Class<?> type = resolveType(prototypeClass);
+
+        Map<String, Field> fields = new HashMap<>();
+        for (Field field : prototypeClass.getFields())
+            if (!Modifier.isStatic(field.getModifiers()))
+                fields.put(field.getName(), field);
+
+        Constructor<?> constructor = null;
+        String[] names = null;
+        if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            names = Arrays.stream(components).map(RecordComponent::getName).toArray(String[]::new);
+            try {
+                constructor = type.getDeclaredConstructor(
+                        Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new)
+                );
+            } catch (NoSuchMethodException e) {
+                throw new PrototypeException("No canonical constructor found for " + type.getName(), e);
+            }
+        } else {
+            boolean unnamed = false;
+            boolean ambiguous = false;
+            for (Constructor<?> candidate : type.getDeclaredConstructors()) {
+                unnamed |= candidate.getParameterCount() > 0 && !candidate.getParameters()[0].isNamePresent();
+
+                String[] candidateNames = parameterNames(candidate, fields);
+                if (candidateNames == null || names != null && candidateNames.length < names.length)
+                    continue;
+
+                ambiguous = names != null && candidateNames.length == names.length;
+                constructor = candidate;
+                names = candidateNames;
+            }
+
+            if (ambiguous)
+                throw new PrototypeException(
+                        "Several constructors of " + type.getName() + " with " + names.length
+                                + " parameters match the public fields of " + prototypeClass.getName()
+                );
+
+            if (constructor != null && names.length < fields.size())
+                throw new PrototypeException(
+                        "No constructor of " + type.getName() + " takes all public fields of "
+                                + prototypeClass.getName() + (unnamed ? ", compile it with -parameters" : "")
+                );
+        }
+
+        if (constructor == null)
+            throw new PrototypeException(
+                    "No constructor of " + type.getName() + " matches the public fields of " + prototypeClass.getName()
+            );
+
+        try {
+            MethodHandle handle = lookup.unreflectConstructor(constructor);
+            MethodHandle[] getters = new MethodHandle[names.length];
+            for (int i = 0; i < names.length; i++) {
+                Field field = fields.get(names[i]);
+                if (field == null)
+                    throw new PrototypeException(
+                            "No public field " + names[i] + " found in " + prototypeClass.getName()
+                    );
+
+                getters[i] = lookup.unreflectGetter(field)
+                        .asType(MethodType.methodType(constructor.getParameterTypes()[i], prototypeClass));
+            }
+
+            handle = MethodHandles.filterArguments(handle, 0, getters);
+            handle = MethodHandles.permuteArguments(
+                    handle, MethodType.methodType(type, prototypeClass), new int[names.length]
+            );
+
+            return handle.asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException | ClassCastException | IllegalArgumentException e) {
+            throw new PrototypeException("Cannot build " + type.getName() + " from " + prototypeClass.getName(), e);
+        }
+    }
+
+    /**
+     * Returns the parameter names of the given constructor if all of them match a field, null otherwise.
+     */
+    private static String[] parameterNames(Constructor<?> constructor, Map<String, Field> fields)
+    {
+        String[] names = new String[constructor.getParameterCount()];
+        for (int i = 0; i < names.length; i++) {
+            Parameter parameter = constructor.getParameters()[i];
+            if (!parameter.isNamePresent() || !fields.containsKey(parameter.getName()))
+                return null;
+
+            names[i] = parameter.getName();
+        }
+
+        return names;
+    }
+
+    private static Class<?> resolveType(Class<?> prototypeClass)
+    {
+        Class<?> current = prototypeClass;
+        while (current.getSuperclass() != AutoBuildPrototype.class)
+            current = current.getSuperclass();
+
+        Type superclass = current.getGenericSuperclass();
+        if (superclass instanceof ParameterizedType parameterized) {
+            Type type = parameterized.getActualTypeArguments()[0];
+            if (type instanceof Class<?> typeClass)
+                return typeClass;
+            if (type instanceof ParameterizedType parameterizedType)
+                return (Class<?>) parameterizedType.getRawType();
+        }
+
+        throw new PrototypeException(
+                prototypeClass.getName() + " must extend AutoBuildPrototype with a concrete type argument"
+        );
+    }
+}
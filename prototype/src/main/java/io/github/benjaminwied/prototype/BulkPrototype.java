@@ -0,0 +1,50 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+/**
+ * A prototype able to build many instances at once directly into primitive column arrays, instead of allocating one
+ * object per instance. This keeps the fields of all instances contiguous in memory, e.g. for simulations spawning
+ * thousands of entities from a single prototype.
+ *
+ * @author     Benjamin Wied
+ *
+ * @param  <T>
+ *             type which is represented by this Prototype
+ *
+ * @see        PrototypeManager#createBulk(String, int, ColumnSink)
+ */
+public interface BulkPrototype<T> extends Prototype<T>
+{
+    /**
+     * Writes the field values of {@code count} instances to the columns supplied by the sink, starting at index 0.
+     * Fields whose column is not supplied are skipped.
+     *
+     * @param count
+     *              number of instances to build
+     * @param sink
+     *              sink supplying the columns
+     */
+    void buildInto(int count, ColumnSink<T> sink);
+}
@@ -0,0 +1,97 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+/**
+ * {@link ColumnSink} checking that all columns supplied by the wrapped sink can hold the requested number of
+ * instances, so that a {@link BulkPrototype} does not fail partway through writing.
+ *
+ * @author     Benjamin Wied
+ *
+ * @param  <T>
+ *             type which is represented by the prototype
+ */
+final class CheckedColumnSink<T> implements ColumnSink<T>
+{
+    private final ColumnSink<T> sink;
+    private final int count;
+
+    CheckedColumnSink(ColumnSink<T> sink, int count)
+    {
+        this.sink = sink;
+        this.count = count;
+    }
+
+    @Override
+    public void store(int index, T instance)
+    {
+        sink.store(index, instance);
+    }
+
+    @Override
+    public boolean supportsColumns()
+    {
+        return true;
+    }
+
+    @Override
+    public int[] ints(String field)
+    {
+        int[] column = sink.ints(field);
+        check(field, column == null ? count : column.length);
+        return column;
+    }
+
+    @Override
+    public long[] longs(String field)
+    {
+        long[] column = sink.longs(field);
+        check(field, column == null ? count : column.length);
+        return column;
+    }
+
+    @Override
+    public float[] floats(String field)
+    {
+        float[] column = sink.floats(field);
+        check(field, column == null ? count : column.length);
+        return column;
+    }
+
+    @Override
+    public double[] doubles(String field)
+    {
+        double[] column = sink.doubles(field);
+        check(field, column == null ? count : column.length);
+        return column;
+    }
+
+    private void check(String field, int length)
+    {
+        if (length < count)
+            throw new IllegalArgumentException(
+                    "Column " + field + " has " + length + " elements, but " + count + " instances were requested"
+            );
+    }
+}
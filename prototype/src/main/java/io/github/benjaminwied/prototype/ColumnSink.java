@@ -0,0 +1,110 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+/**
+ * Receives instances built by {@link PrototypeManager#createBulk(String, int, ColumnSink)} in struct-of-arrays layout.
+ * Each field is stored in a primitive column array supplied by the caller, where the value of the i-th instance is
+ * stored at index i.<br>
+ * <br>
+ * Sinks {@link #supportsColumns() supporting columns} are filled by a {@link BulkPrototype}, which requests the
+ * columns it writes by field name. Columns not supplied by the sink (returning null) are skipped. Returned arrays must
+ * have at least as many elements as instances requested. For all other sinks, e.g. lambdas, and for prototypes not
+ * implementing {@link BulkPrototype}, instances are built one at a time and passed to {@link #store(int, Object)}.
+ *
+ * @author     Benjamin Wied
+ *
+ * @param  <T>
+ *             type which is represented by the prototype
+ *
+ * @see        BulkPrototype
+ */
+@FunctionalInterface
+public interface ColumnSink<T>
+{
+    /**
+     * Stores a single instance, if it was not written to columns.
+     *
+     * @param index
+     *                 index of the instance
+     * @param instance
+     *                 instance built
+     */
+    void store(int index, T instance);
+
+    /**
+     * Returns true if this sink supplies columns, so that a {@link BulkPrototype} may write to them instead of
+     * building instances.
+     *
+     * @return true if this sink supplies columns, false by default
+     */
+    default boolean supportsColumns()
+    {
+        return false;
+    }
+
+    /**
+     * @param  field
+     *               field name
+     *
+     * @return       the column for the given field, or null if the field is not stored
+     */
+    default int[] ints(String field)
+    {
+        return null;
+    }
+
+    /**
+     * @param  field
+     *               field name
+     *
+     * @return       the column for the given field, or null if the field is not stored
+     */
+    default long[] longs(String field)
+    {
+        return null;
+    }
+
+    /**
+     * @param  field
+     *               field name
+     *
+     * @return       the column for the given field, or null if the field is not stored
+     */
+    default float[] floats(String field)
+    {
+        return null;
+    }
+
+    /**
+     * @param  field
+     *               field name
+     *
+     * @return       the column for the given field, or null if the field is not stored
+     */
+    default double[] doubles(String field)
+    {
+        return null;
+    }
+}
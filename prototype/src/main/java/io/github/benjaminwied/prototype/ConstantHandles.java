@@ -0,0 +1,244 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Function;
+
+/**
+ * Binds method handles to hidden classes, so they are invoked like hand-written code. A handle stored in an ordinary
+ * field is not a constant to the JIT compiler, so {@code invokeExact} cannot be inlined through it. Each hidden class
+ * created here keeps its handle in a {@code static final} field, which the JIT compiler constant-folds, and invokes it
+ * from {@link Function#apply(Object)}. The handle is passed as class data, so the hidden class needs no access to the
+ * classes the handle uses.<br>
+ * <br>
+ * The class file is written directly, it has no branches and therefore needs no stack map frames.
+ *
+ * @author Benjamin Wied
+ */
+final class ConstantHandles
+{
+    private static final String CLASS_NAME = ConstantHandles.class.getName().replace('.', '/') + "$Function";
+    private static final String CLASS_DATA_DESCRIPTOR =
+            "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;";
+    private static final int CLASS_FILE_VERSION = 61;
+
+    private static final int UTF8 = 1;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int LDC = 0x12;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int GETSTATIC = 0xb2;
+    private static final int PUTSTATIC = 0xb3;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int CHECKCAST = 0xc0;
+
+    private static final byte[] CLASS_FILE = classFile();
+
+    private ConstantHandles()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns a function invoking the given handle, which must be of type {@code (Object)Object}.
+     *
+     * @param  handle
+     *                handle to invoke
+     *
+     * @return        a function invoking the handle
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> asFunction(MethodHandle handle)
+    {
+        if (!handle.type().equals(MethodType.methodType(Object.class, Object.class)))
+            throw new IllegalArgumentException("Handle must be of type (Object)Object, got " + handle.type());
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(CLASS_FILE, handle, true);
+            return (Function<Object, Object>) lookup.findConstructor(
+                    lookup.lookupClass(), MethodType.methodType(void.class)
+            ).invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to define constant handle class", t);
+        }
+    }
+
+    /**
+     * Writes a class equivalent to:
+     *
+     * <pre>
+     * final class Function implements java.util.function.Function {
+     *     static final MethodHandle HANDLE = MethodHandles.classData(MethodHandles.lookup(), "_", MethodHandle.class);
+     *
+     *     public Object apply(Object o) {
+     *         return HANDLE.invokeExact(o);
+     *     }
+     * }
+     * </pre>
+     */
+    private static byte[] classFile()
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_FILE_VERSION);
+
+            // Constant pool, entries are referenced by their index in the comments
+            out.writeShort(36);
+            utf8(out, CLASS_NAME); // 1
+            reference(out, CLASS, 1); // 2
+            utf8(out, "java/lang/Object"); // 3
+            reference(out, CLASS, 3); // 4
+            utf8(out, "java/util/function/Function"); // 5
+            reference(out, CLASS, 5); // 6
+            utf8(out, "HANDLE"); // 7
+            utf8(out, "Ljava/lang/invoke/MethodHandle;"); // 8
+            utf8(out, "java/lang/invoke/MethodHandle"); // 9
+            reference(out, CLASS, 9); // 10
+            reference(out, NAME_AND_TYPE, 7, 8); // 11
+            reference(out, FIELD_REF, 2, 11); // 12
+            utf8(out, "java/lang/invoke/MethodHandles"); // 13
+            reference(out, CLASS, 13); // 14
+            utf8(out, "lookup"); // 15
+            utf8(out, "()Ljava/lang/invoke/MethodHandles$Lookup;"); // 16
+            reference(out, NAME_AND_TYPE, 15, 16); // 17
+            reference(out, METHOD_REF, 14, 17); // 18
+            utf8(out, "_"); // 19
+            reference(out, STRING, 19); // 20
+            utf8(out, "classData"); // 21
+            utf8(out, CLASS_DATA_DESCRIPTOR); // 22
+            reference(out, NAME_AND_TYPE, 21, 22); // 23
+            reference(out, METHOD_REF, 14, 23); // 24
+            utf8(out, "<init>"); // 25
+            utf8(out, "()V"); // 26
+            reference(out, NAME_AND_TYPE, 25, 26); // 27
+            reference(out, METHOD_REF, 4, 27); // 28
+            utf8(out, "<clinit>"); // 29
+            utf8(out, "apply"); // 30
+            utf8(out, "(Ljava/lang/Object;)Ljava/lang/Object;"); // 31
+            utf8(out, "invokeExact"); // 32
+            reference(out, NAME_AND_TYPE, 32, 31); // 33
+            reference(out, METHOD_REF, 10, 33); // 34
+            utf8(out, "Code"); // 35
+
+            out.writeShort(ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC);
+            out.writeShort(2);
+            out.writeShort(4);
+            out.writeShort(1);
+            out.writeShort(6);
+
+            out.writeShort(1);
+            out.writeShort(ACC_STATIC | ACC_FINAL);
+            out.writeShort(7);
+            out.writeShort(8);
+            out.writeShort(0);
+
+            out.writeShort(3);
+            method(out, ACC_STATIC, 29, 26, 3, 0, new byte[] {
+                    (byte) INVOKESTATIC, 0, 18,
+                    LDC, 20,
+                    LDC, 10,
+                    (byte) INVOKESTATIC, 0, 24,
+                    (byte) CHECKCAST, 0, 10,
+                    (byte) PUTSTATIC, 0, 12,
+                    (byte) RETURN
+            });
+            method(out, ACC_PUBLIC, 25, 26, 1, 1, new byte[] {
+                    ALOAD_0,
+                    (byte) INVOKESPECIAL, 0, 28,
+                    (byte) RETURN
+            });
+            method(out, ACC_PUBLIC, 30, 31, 2, 2, new byte[] {
+                    (byte) GETSTATIC, 0, 12,
+                    ALOAD_1,
+                    (byte) INVOKEVIRTUAL, 0, 34,
+                    (byte) ARETURN
+            });
+
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static void utf8(DataOutputStream out, String value) throws IOException
+    {
+        out.writeByte(UTF8);
+        out.writeUTF(value);
+    }
+
+    private static void reference(DataOutputStream out, int tag, int... indices) throws IOException
+    {
+        out.writeByte(tag);
+        for (int index : indices)
+            out.writeShort(index);
+    }
+
+    private static void method(
+            DataOutputStream out, int access, int name, int descriptor, int maxStack, int maxLocals, byte[] code
+    ) throws IOException
+    {
+        out.writeShort(access);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+
+        out.writeShort(35);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Estimated heap footprint of the prototypes registered in a {@link PrototypeManager}, as returned by
+ * {@link PrototypeManager#footprint()}. All sizes are estimates in bytes, assuming a 64-bit JVM with compressed
+ * references. Objects reachable from several prototypes are counted once, for one of them.
+ *
+ * @author Benjamin Wied
+ */
+public final class Footprint
+{
+    private final Map<String, Long> prototypeBytes;
+    private final Map<String, Long> namespaceBytes;
+    private final Map<Class<?>, Long> classBytes;
+    private final long totalBytes;
+    private final long generation;
+
+    Footprint(Map<String, Long> prototypeBytes, Map<String, Class<?>> prototypeClasses, long generation)
+    {
+        this.prototypeBytes = Map.copyOf(prototypeBytes);
+        this.generation = generation;
+
+        Map<String, Long> namespaces = new HashMap<>();
+        Map<Class<?>, Long> classes = new HashMap<>();
+        long total = 0;
+        for (Map.Entry<String, Long> entry : prototypeBytes.entrySet()) {
+            String name = entry.getKey();
+            long bytes = entry.getValue();
+            total += bytes;
+            classes.merge(prototypeClasses.get(name), bytes, Long::sum);
+
+            for (int i = name.indexOf('/'); i >= 0; i = name.indexOf('/', i + 1))
+                namespaces.merge(name.substring(0, i), bytes, Long::sum);
+        }
+
+        namespaceBytes = Map.copyOf(namespaces);
+        classBytes = Map.copyOf(classes);
+        totalBytes = total;
+    }
+
+    /**
+     * @return an immutable map containing the estimated retained bytes of each prototype
+     */
+    public Map<String, Long> getPrototypeBytes()
+    {
+        return prototypeBytes;
+    }
+
+    /**
+     * Returns the estimated retained bytes aggregated by namespace. Every {@code /}-separated prefix of a prototype
+     * name is a namespace, e.g. {@code items/swords/iron} is counted for {@code items} and {@code items/swords}.
+     *
+     * @return an immutable map containing the estimated retained bytes of each namespace
+     */
+    public Map<String, Long> getNamespaceBytes()
+    {
+        return namespaceBytes;
+    }
+
+    /**
+     * @return an immutable map containing the estimated retained bytes aggregated by prototype class
+     */
+    public Map<Class<?>, Long> getClassBytes()
+    {
+        return classBytes;
+    }
+
+    /**
+     * @return the estimated retained bytes of all prototypes
+     */
+    public long getTotalBytes()
+    {
+        return totalBytes;
+    }
+
+    /**
+     * @return the {@link PrototypeManager#getGeneration() generation} this footprint was computed for
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Footprint[prototypes=" + prototypeBytes.size() + ", totalBytes=" + totalBytes + ", generation="
+                + generation + "]";
+    }
+}
@@ -0,0 +1,276 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates the retained heap size of prototypes by walking their object graphs, see
+ * {@link PrototypeManager#footprint()}.<br>
+ * <br>
+ * Sizes are derived from the field layout, assuming 12 byte object headers, 4 byte references and 8 byte alignment.
+ * Fields of classes in named modules (e.g. {@code java.util.HashMap}) are not accessible, so such objects are counted
+ * shallowly, except for collections and maps, whose elements are walked and whose internal structure is approximated
+ * per element. Objects deeper than the maximum depth ({@value #DEFAULT_MAX_DEPTH} by default) are not counted.<br>
+ * <br>
+ * Prototypes kept off-heap by the storage are counted by their serialized size instead, so they are never
+ * deserialized.<br>
+ * <br>
+ * The tracker only keeps the last footprint. Objects are tracked for the duration of a walk, so neither per-object
+ * bookkeeping nor removed prototypes are retained between updates.
+ *
+ * @author Benjamin Wied
+ */
+final class FootprintTracker
+{
+    static final int DEFAULT_MAX_DEPTH = 8;
+
+    private static final int HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+    private static final int COLLECTION_ELEMENT = 16;
+    private static final int MAP_ENTRY = 32;
+
+    private static final ClassValue<Layout> LAYOUTS = new ClassValue<>()
+    {
+        @Override
+        protected Layout computeValue(Class<?> type)
+        {
+            return Layout.of(type);
+        }
+    };
+
+    private Footprint footprint;
+    private int footprintDepth;
+
+    /**
+     * Returns the footprint computed by the last update, if it is still current.
+     *
+     * @param  generation
+     *                    current generation
+     * @param  maxDepth
+     *                    maximum depth of the requested footprint
+     *
+     * @return            the last footprint, or null if it is outdated
+     */
+    synchronized Footprint current(long generation, int maxDepth)
+    {
+        return footprint != null && footprint.getGeneration() == generation && footprintDepth == maxDepth ? footprint
+                : null;
+    }
+
+    /**
+     * Updates the footprint to the given prototypes, walking all prototypes kept on the heap.
+     *
+     * @param  prototypes
+     *                         prototypes kept on the heap, mapped by name
+     * @param  offHeapBytes
+     *                         serialized sizes of prototypes kept off-heap, mapped by name
+     * @param  prototypeClasses
+     *                         classes of all prototypes, mapped by name
+     * @param  generation
+     *                         generation of the prototypes
+     * @param  maxDepth
+     *                         maximum depth of walked objects
+     *
+     * @return                 the updated footprint
+     */
+    synchronized Footprint update(Map<String, Prototype<?>> prototypes, Map<String, Long> offHeapBytes,
+            Map<String, Class<?>> prototypeClasses, long generation, int maxDepth)
+    {
+        if (footprint != null && footprintDepth == maxDepth && footprint.getGeneration() >= generation)
+            return footprint;
+
+        List<String> names = new ArrayList<>(prototypes.keySet());
+        Collections.sort(names);
+
+        Map<String, Long> prototypeBytes = new HashMap<>(offHeapBytes);
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String name : names)
+            prototypeBytes.put(name, walk(prototypes.get(name), visited, maxDepth));
+
+        footprint = new Footprint(prototypeBytes, prototypeClasses, generation);
+        footprintDepth = maxDepth;
+        return footprint;
+    }
+
+    private static long walk(Object root, Set<Object> visited, int maxDepth)
+    {
+        long bytes = 0;
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(new Node(root, 0));
+
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (isShared(node.object) || !visited.add(node.object))
+                continue;
+
+            bytes += sizeOf(node.object, node.depth < maxDepth ? stack : null, node.depth + 1);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Returns true for objects which are not retained by prototypes, even if referenced by them.
+     */
+    private static boolean isShared(Object object)
+    {
+        return object instanceof Class || object instanceof ClassLoader || object instanceof Thread
+                || object instanceof Enum || object instanceof Module || object instanceof PrototypeManager;
+    }
+
+    /**
+     * Returns the size of the given object, pushing referenced objects to the stack unless it is null.
+     */
+    private static long sizeOf(Object object, Deque<Node> stack, int childDepth)
+    {
+        Class<?> type = object.getClass();
+        if (type.isArray())
+            return sizeOfArray(object, stack, childDepth);
+        if (object instanceof String string)
+            return LAYOUTS.get(String.class).size + align(ARRAY_HEADER + string.length());
+
+        Layout layout = LAYOUTS.get(type);
+        long bytes = layout.size;
+        if (stack == null)
+            return bytes;
+
+        for (Field field : layout.references) {
+            try {
+                push(stack, field.get(object), childDepth);
+            } catch (IllegalAccessException e) {
+                // Not reached, fields are made accessible when computing the layout
+            }
+        }
+
+        if (layout.complete)
+            return bytes;
+
+        try {
+            if (object instanceof Map<?, ?> map) {
+                bytes += (long) map.size() * MAP_ENTRY;
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    push(stack, entry.getKey(), childDepth);
+                    push(stack, entry.getValue(), childDepth);
+                }
+            } else if (object instanceof Collection<?> collection) {
+                bytes += (long) collection.size() * COLLECTION_ELEMENT;
+                for (Object element : collection)
+                    push(stack, element, childDepth);
+            }
+        } catch (RuntimeException e) {
+            // Iterating a concurrently modified collection may fail, count the elements seen so far
+        }
+
+        return bytes;
+    }
+
+    private static long sizeOfArray(Object array, Deque<Node> stack, int childDepth)
+    {
+        Class<?> componentType = array.getClass().getComponentType();
+        int length = Array.getLength(array);
+        if (componentType.isPrimitive())
+            return align(ARRAY_HEADER + (long) length * sizeOf(componentType));
+
+        if (stack != null) {
+            for (Object element : (Object[]) array)
+                push(stack, element, childDepth);
+        }
+
+        return align(ARRAY_HEADER + (long) length * REFERENCE);
+    }
+
+    private static void push(Deque<Node> stack, Object object, int depth)
+    {
+        if (object != null)
+            stack.push(new Node(object, depth));
+    }
+
+    private static int sizeOf(Class<?> type)
+    {
+        if (!type.isPrimitive())
+            return REFERENCE;
+        if (type == long.class || type == double.class)
+            return 8;
+        if (type == int.class || type == float.class)
+            return 4;
+        if (type == short.class || type == char.class)
+            return 2;
+        return 1;
+    }
+
+    private static long align(long bytes)
+    {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private record Node(Object object, int depth)
+    {}
+
+    /**
+     * Shallow size and accessible reference fields of a class. A layout is complete if all reference fields are
+     * accessible.
+     */
+    private record Layout(long size, List<Field> references, boolean complete)
+    {
+        static Layout of(Class<?> type)
+        {
+            long size = HEADER;
+            List<Field> references = new ArrayList<>();
+            boolean complete = true;
+
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()))
+                        continue;
+
+                    size += sizeOf(field.getType());
+                    if (field.getType().isPrimitive())
+                        continue;
+
+                    if (field.trySetAccessible())
+                        references.add(field);
+                    else
+                        complete = false;
+                }
+            }
+
+            return new Layout(align(size), List.copyOf(references), complete);
+        }
+    }
+}
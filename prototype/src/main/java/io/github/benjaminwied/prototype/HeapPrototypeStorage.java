@@ -0,0 +1,82 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Default {@link PrototypeStorage}, keeping all prototypes in a {@link HashMap}.
+ *
+ * @author Benjamin Wied
+ */
+final class HeapPrototypeStorage implements PrototypeStorage
+{
+    private final Map<String, Prototype<?>> prototypes = new HashMap<>();
+
+    @Override
+    public Optional<Prototype<?>> get(String name)
+    {
+        return Optional.ofNullable(prototypes.get(name));
+    }
+
+    @Override
+    public boolean put(Prototype<?> prototype)
+    {
+        return prototypes.put(prototype.name(), prototype) != null;
+    }
+
+    @Override
+    public boolean remove(String name)
+    {
+        return prototypes.remove(name) != null;
+    }
+
+    @Override
+    public boolean contains(String name)
+    {
+        return prototypes.containsKey(name);
+    }
+
+    @Override
+    public Set<String> names()
+    {
+        return Collections.unmodifiableSet(prototypes.keySet());
+    }
+
+    @Override
+    public int size()
+    {
+        return prototypes.size();
+    }
+
+    @Override
+    public void clear()
+    {
+        prototypes.clear();
+    }
+}
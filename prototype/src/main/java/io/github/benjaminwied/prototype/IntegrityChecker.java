@@ -26,6 +26,7 @@ package io.github.benjaminwied.prototype;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.Objects;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,7 +55,8 @@ public final class IntegrityChecker
      * <li>Nested prototypes
      * <li>Missing {@code PrototypeReference}.
      * </ul>
-     * If the check passes, this method returns. Otherwise, an {@code PrototypeException} is thrown.
+     * If the check passes, this method returns. Otherwise, an {@code PrototypeException} is thrown. Generated
+     * {@link PrototypeMetadata} is used when present, reflection otherwise.
      *
      * @param  manager
      *                            manager to verify
@@ -107,6 +109,10 @@ public final class IntegrityChecker
      */
     public static boolean verifyReferenceIntegrity(PrototypeManager manager, Prototype<?> prototype)
     {
+        Optional<PrototypeMetadata<Prototype<?>>> metadata = metadata(prototype);
+        if (metadata.isPresent())
+            return verifyReferenceIntegrity(manager, prototype, metadata.get());
+
         boolean failure = false;
 
         try {
@@ -115,16 +121,7 @@ public final class IntegrityChecker
                     continue;
 
                 PrototypeReference<?, ?> reference = (PrototypeReference<?, ?>) field.get(prototype);
-                if (reference == null)
-                    failure = verifyNullReference(field) || failure;
-                else if (manager.getPrototype(reference).isEmpty()) {
-                    LOGGER.error(
-                            Prototype.LOG_MARKER,
-                            "Integrity of prototype {} invalid: no referenced prototype found: {}", prototype.name(),
-                            reference.getTargetPrototypeName()
-                    );
-                    failure = true;
-                }
+                failure = verifyReference(manager, prototype, reference, isOptionalReference(field)) || failure;
             }
         } catch (IllegalAccessException e) {
             LOGGER.error(Prototype.LOG_MARKER, "Failed to verify integrity of prototype {}", prototype.name(), e);
@@ -134,9 +131,64 @@ public final class IntegrityChecker
         return failure;
     }
 
-    private static boolean verifyNullReference(Field field)
+    private static boolean verifyReferenceIntegrity(
+            PrototypeManager manager, Prototype<?> prototype, PrototypeMetadata<Prototype<?>> metadata
+    )
     {
-        return !field.isAnnotationPresent(OptionalReference.class);
+        boolean failure = false;
+
+        for (PrototypeField<Prototype<?>> field : metadata.referenceFields()) {
+            PrototypeReference<?, ?> reference = (PrototypeReference<?, ?>) field.get(prototype);
+            failure = verifyReference(manager, prototype, reference, field.isOptionalReference()) || failure;
+        }
+
+        return failure;
+    }
+
+    private static boolean verifyReference(
+            PrototypeManager manager, Prototype<?> prototype, PrototypeReference<?, ?> reference, boolean optional
+    )
+    {
+        if (reference == null)
+            return !optional;
+
+        Optional<Prototype<Object>> target = manager.getPrototype(reference.getTargetPrototypeName());
+        if (target.isEmpty()) {
+            LOGGER.error(
+                    Prototype.LOG_MARKER, "Integrity of prototype {} invalid: no referenced prototype found: {}",
+                    prototype.name(), reference.getTargetPrototypeName()
+            );
+            return true;
+        }
+
+        Optional<Object> argument = reference.getArgument();
+        if (argument.isEmpty())
+            return false;
+
+        if (!(target.get() instanceof ParameterizedPrototype<?, ?> parameterized)) {
+            LOGGER.error(
+                    Prototype.LOG_MARKER,
+                    "Integrity of prototype {} invalid: referenced prototype {} is not parameterized", prototype.name(),
+                    reference.getTargetPrototypeName()
+            );
+            return true;
+        }
+
+        if (!parameterized.argumentType().isInstance(argument.get())) {
+            LOGGER.error(
+                    Prototype.LOG_MARKER,
+                    "Integrity of prototype {} invalid: argument {} is not applicable to referenced prototype {}",
+                    prototype.name(), argument.get(), reference.getTargetPrototypeName()
+            );
+            return true;
+        }
+
+        return false;
+    }
+
+    private static boolean isOptionalReference(Field field)
+    {
+        return field.isAnnotationPresent(OptionalReference.class);
     }
 
     /**
@@ -153,6 +205,16 @@ public final class IntegrityChecker
 
         boolean failure = false;
 
+        Optional<PrototypeMetadata<Prototype<?>>> metadata = metadata(prototype);
+        if (metadata.isPresent()) {
+            for (PrototypeField<Prototype<?>> field : metadata.get().fields()) {
+                if (field.isNestedPrototype())
+                    failure = reportNestedPrototype(prototype, field.getName()) || failure;
+            }
+
+            return failure;
+        }
+
         for (Field field : prototype.getClass().getFields()) {
             if (Modifier.isStatic(field.getModifiers()) || !field.canAccess(prototype)
                     || !Modifier.isPublic(field.getModifiers()))
@@ -166,15 +228,25 @@ public final class IntegrityChecker
 
     private static boolean verifyFieldIntegrity(Prototype<?> prototype, Field field)
     {
-        if (Prototype.class.isAssignableFrom(field.getType())) {
-            LOGGER.error(
-                    Prototype.LOG_MARKER,
-                    "Integrity of prototype {} invalid: prototype nesting not allowed (property {})", prototype.name(),
-                    field.getName()
-            );
-            return true;
-        }
+        if (Prototype.class.isAssignableFrom(field.getType()))
+            return reportNestedPrototype(prototype, field.getName());
 
         return false;
     }
+
+    private static boolean reportNestedPrototype(Prototype<?> prototype, String fieldName)
+    {
+        LOGGER.error(
+                Prototype.LOG_MARKER,
+                "Integrity of prototype {} invalid: prototype nesting not allowed (property {})", prototype.name(),
+                fieldName
+        );
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<PrototypeMetadata<Prototype<?>>> metadata(Prototype<?> prototype)
+    {
+        return PrototypeMetadataIndex.lookup((Class<Prototype<?>>) prototype.getClass());
+    }
 }
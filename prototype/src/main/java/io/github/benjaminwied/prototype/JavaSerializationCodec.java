@@ -0,0 +1,70 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link PrototypeCodec} using Java serialization. All prototypes must implement {@link Serializable}. Only decode data
+ * from trusted sources.
+ *
+ * @author Benjamin Wied
+ */
+public final class JavaSerializationCodec implements PrototypeCodec
+{
+    @Override
+    public byte[] encode(Prototype<?> prototype)
+    {
+        if (!(prototype instanceof Serializable))
+            throw new PrototypeException("Prototype " + prototype.name() + " is not serializable");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(prototype);
+        } catch (IOException e) {
+            throw new PrototypeException("Failed to serialize prototype " + prototype.name(), e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Prototype<?> decode(String name, ByteBuffer data)
+    {
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Prototype<?>) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new PrototypeException("Failed to deserialize prototype " + name, e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Result of loading prototypes using an {@link ArchiveLoader}.
+ *
+ * @author Benjamin Wied
+ */
+public final class LoadReport
+{
+    private final Map<String, Duration> archiveTimes;
+    private final int prototypeCount;
+    private final Duration totalTime;
+
+    LoadReport(Map<String, Duration> archiveTimes, int prototypeCount, Duration totalTime)
+    {
+        this.archiveTimes = Map.copyOf(archiveTimes);
+        this.prototypeCount = prototypeCount;
+        this.totalTime = totalTime;
+    }
+
+    /**
+     * Returns the time it took to read and parse all entries of each archive. Since archives are loaded in parallel,
+     * these times may add up to more than the {@link #getTotalTime() total time}.
+     *
+     * @return an immutable map containing the load time of each archive
+     */
+    public Map<String, Duration> getArchiveTimes()
+    {
+        return archiveTimes;
+    }
+
+    /**
+     * @return the number of prototypes registered
+     */
+    public int getPrototypeCount()
+    {
+        return prototypeCount;
+    }
+
+    /**
+     * @return the wall-clock time of the whole load, including registration
+     */
+    public Duration getTotalTime()
+    {
+        return totalTime;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LoadReport[archives=" + archiveTimes.size() + ", prototypes=" + prototypeCount + ", totalTime="
+                + totalTime + "]";
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A zip archive or directory opened by an {@link ArchiveLoader}. Zip archives are mounted as a {@link FileSystem}.
+ * Entries stored without compression are additionally located in a memory mapping of the archive, so that they can be
+ * read without copying.
+ *
+ * @author Benjamin Wied
+ */
+final class MountedArchive implements Closeable
+{
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int STORED = 0;
+    private static final int FLAG_ENCRYPTED = 0x1;
+    private static final int FLAG_UTF8 = 0x800;
+    private static final long ZIP64_MARKER = 0xFFFFFFFFL;
+
+    private final String label;
+    private final FileSystem fileSystem;
+    private final Path root;
+    private final Map<String, ByteBuffer> storedEntries;
+
+    private MountedArchive(String label, FileSystem fileSystem, Path root, Map<String, ByteBuffer> storedEntries)
+    {
+        this.label = label;
+        this.fileSystem = fileSystem;
+        this.root = root;
+        this.storedEntries = storedEntries;
+    }
+
+    /**
+     * Opens the given zip archive or directory.
+     *
+     * @param  path
+     *                     path to a zip archive or directory
+     * @param  directory
+     *                     directory within the archive containing the entries to load, empty for the whole archive
+     *
+     * @return             the opened archive
+     *
+     * @throws IOException
+     *                     if the archive could not be opened
+     */
+    static MountedArchive open(Path path, String directory) throws IOException
+    {
+        String label = directory.isEmpty() ? path.toString() : path + "!/" + directory;
+        if (Files.isDirectory(path))
+            return new MountedArchive(label, null, path.resolve(directory), Map.of());
+
+        FileSystem fileSystem = FileSystems.newFileSystem(path);
+        try {
+            return new MountedArchive(label, fileSystem, fileSystem.getPath("/", directory), mapStoredEntries(path));
+        } catch (IOException | RuntimeException e) {
+            fileSystem.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the name of this archive used in reports
+     */
+    String label()
+    {
+        return label;
+    }
+
+    /**
+     * Lists all regular files below the root of this archive.
+     *
+     * @param  filter
+     *                     filter applied to entry names
+     *
+     * @return             the matching entries
+     *
+     * @throws IOException
+     *                     if listing fails
+     */
+    List<Path> entries(Predicate<String> filter) throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile).filter(entry -> filter.test(entryName(entry))).toList();
+        }
+    }
+
+    /**
+     * @param  entry
+     *               entry of this archive
+     *
+     * @return       the name of the entry relative to the root, separated by {@code /}
+     */
+    String entryName(Path entry)
+    {
+        String name = root.relativize(entry).toString();
+        String separator = entry.getFileSystem().getSeparator();
+        return separator.equals("/") ? name : name.replace(separator, "/");
+    }
+
+    /**
+     * Reads the given entry. Stored entries are returned as a read-only view of the mapped archive, all others are
+     * read into a new buffer.
+     *
+     * @param  entry
+     *                     entry of this archive
+     *
+     * @return             the content of the entry
+     *
+     * @throws IOException
+     *                     if reading fails
+     */
+    ByteBuffer read(Path entry) throws IOException
+    {
+        if (fileSystem != null) {
+            ByteBuffer stored = storedEntries.get(entry.toAbsolutePath().toString().substring(1));
+            if (stored != null)
+                return stored.duplicate();
+        }
+
+        return ByteBuffer.wrap(Files.readAllBytes(entry));
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (fileSystem != null)
+            fileSystem.close();
+    }
+
+    /**
+     * Maps the archive and locates the data of all entries stored without compression using the central directory.
+     * Archives which cannot be mapped as a single buffer, ZIP64 archives and malformed archives are read using the
+     * file system only.
+     */
+    private static Map<String, ByteBuffer> mapStoredEntries(Path archive) throws IOException
+    {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < END_OF_CENTRAL_DIRECTORY_SIZE || size > Integer.MAX_VALUE)
+                return Map.of();
+
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int end = -1;
+        int limit = Math.max(0, buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE - MAX_COMMENT_SIZE);
+        for (int i = buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE; i >= limit && end < 0; i--)
+            if (buffer.getInt(i) == END_OF_CENTRAL_DIRECTORY)
+                end = i;
+        if (end < 0)
+            return Map.of();
+
+        int count = unsignedShort(buffer, end + 10);
+        long directoryOffset = unsignedInt(buffer, end + 16);
+        if (count == 0xFFFF || directoryOffset == ZIP64_MARKER)
+            return Map.of();
+
+        Map<String, ByteBuffer> entries = new HashMap<>();
+        int position = (int) directoryOffset;
+        for (int i = 0; i < count; i++) {
+            if (position + 46 > buffer.limit() || buffer.getInt(position) != CENTRAL_HEADER)
+                return Map.of();
+
+            int flags = unsignedShort(buffer, position + 8);
+            int method = unsignedShort(buffer, position + 10);
+            long compressedSize = unsignedInt(buffer, position + 20);
+            long size = unsignedInt(buffer, position + 24);
+            int nameLength = unsignedShort(buffer, position + 28);
+            int extraLength = unsignedShort(buffer, position + 30);
+            int commentLength = unsignedShort(buffer, position + 32);
+            long localOffset = unsignedInt(buffer, position + 42);
+
+            if (method == STORED && (flags & FLAG_ENCRYPTED) == 0 && compressedSize == size
+                    && size != ZIP64_MARKER && localOffset != ZIP64_MARKER) {
+                byte[] name = new byte[nameLength];
+                buffer.get(position + 46, name);
+                Charset charset = (flags & FLAG_UTF8) != 0 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+                ByteBuffer data = localData(buffer, (int) localOffset, (int) size);
+                if (data != null)
+                    entries.put(new String(name, charset), data);
+            }
+
+            position += 46 + nameLength + extraLength + commentLength;
+        }
+
+        return entries;
+    }
+
+    private static ByteBuffer localData(ByteBuffer buffer, int localOffset, int size)
+    {
+        if (localOffset + 30 > buffer.limit() || buffer.getInt(localOffset) != LOCAL_HEADER)
+            return null;
+
+        long start = (long) localOffset + 30 + unsignedShort(buffer, localOffset + 26)
+                + unsignedShort(buffer, localOffset + 28);
+        if (start + size > buffer.limit())
+            return null;
+
+        return buffer.slice((int) start, size).asReadOnlyBuffer();
+    }
+
+    private static int unsignedShort(ByteBuffer buffer, int index)
+    {
+        return Short.toUnsignedInt(buffer.getShort(index));
+    }
+
+    private static long unsignedInt(ByteBuffer buffer, int index)
+    {
+        return Integer.toUnsignedLong(buffer.getInt(index));
+    }
+}
@@ -0,0 +1,287 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link PrototypeStorage} keeping the serialized form of all prototypes outside of the heap, either in direct
+ * {@link ByteBuffer ByteBuffers} or in a memory-mapped file. Only a bounded LRU cache of deserialized prototypes is
+ * kept on the heap, prototypes missing from the cache are deserialized transparently on lookup.<br>
+ * <br>
+ * The cache is bounded by the serialized size of the cached prototypes, which approximates their heap size.
+ * Prototypes larger than the bound are never cached, so they cannot evict the rest of the cache. When
+ * backed by a file, space of replaced prototypes is only reclaimed by {@link #clear()}.
+ *
+ * @author Benjamin Wied
+ *
+ * @see    PrototypeManager#PrototypeManager(PrototypeStorage)
+ */
+public final class OffHeapPrototypeStorage implements PrototypeStorage, Closeable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapPrototypeStorage.class);
+    private static final int CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private final PrototypeCodec codec;
+    private final long maxCachedBytes;
+    private final FileChannel channel;
+
+    private final Map<String, ByteBuffer> entries = new HashMap<>();
+    private final LinkedHashMap<String, Prototype<?>> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private ByteBuffer chunk;
+    private long chunkOffset;
+    private long cachedBytes;
+    private long storedBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Constructs a new {@code OffHeapPrototypeStorage} using direct {@link ByteBuffer ByteBuffers}.
+     *
+     * @param  codec
+     *                                  codec used to serialize prototypes
+     * @param  maxCachedBytes
+     *                                  maximum serialized size of all prototypes cached on the heap
+     *
+     * @throws NullPointerException
+     *                                  if codec is null
+     * @throws IllegalArgumentException
+     *                                  if maxCachedBytes is negative
+     */
+    public OffHeapPrototypeStorage(PrototypeCodec codec, long maxCachedBytes)
+    {
+        this(codec, maxCachedBytes, (FileChannel) null);
+    }
+
+    /**
+     * Constructs a new {@code OffHeapPrototypeStorage} using a memory-mapped file. Existing content of the file is
+     * discarded.
+     *
+     * @param  codec
+     *                                  codec used to serialize prototypes
+     * @param  maxCachedBytes
+     *                                  maximum serialized size of all prototypes cached on the heap
+     * @param  file
+     *                                  backing file
+     *
+     * @throws IOException
+     *                                  if the file cannot be opened
+     * @throws NullPointerException
+     *                                  if codec or file is null
+     * @throws IllegalArgumentException
+     *                                  if maxCachedBytes is negative
+     */
+    public OffHeapPrototypeStorage(PrototypeCodec codec, long maxCachedBytes, Path file) throws IOException
+    {
+        this(
+                codec, maxCachedBytes,
+                FileChannel.open(
+                        Objects.requireNonNull(file, "file must not be null"), StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+                )
+        );
+    }
+
+    private OffHeapPrototypeStorage(PrototypeCodec codec, long maxCachedBytes, FileChannel channel)
+    {
+        if (maxCachedBytes < 0)
+            throw new IllegalArgumentException("maxCachedBytes must not be negative: " + maxCachedBytes);
+
+        this.codec = Objects.requireNonNull(codec, "codec must not be null");
+        this.maxCachedBytes = maxCachedBytes;
+        this.channel = channel;
+    }
+
+    @Override
+    public synchronized Optional<Prototype<?>> get(String name)
+    {
+        Prototype<?> prototype = cache.get(name);
+        if (prototype != null) {
+            hitCount++;
+            return Optional.of(prototype);
+        }
+
+        ByteBuffer data = entries.get(name);
+        if (data == null)
+            return Optional.empty();
+
+        missCount++;
+        prototype = codec.decode(name, data.duplicate());
+        if (data.capacity() > maxCachedBytes)
+            return Optional.of(prototype);
+
+        cache.put(name, prototype);
+        cachedBytes += data.capacity();
+        evict();
+
+        return Optional.of(prototype);
+    }
+
+    @Override
+    public synchronized boolean put(Prototype<?> prototype)
+    {
+        String name = prototype.name();
+        ByteBuffer data = store(codec.encode(prototype));
+
+        uncache(name);
+        ByteBuffer previous = entries.put(name, data);
+        storedBytes += data.capacity();
+        if (previous != null)
+            storedBytes -= previous.capacity();
+
+        return previous != null;
+    }
+
+    @Override
+    public synchronized boolean remove(String name)
+    {
+        uncache(name);
+        ByteBuffer previous = entries.remove(name);
+        if (previous == null)
+            return false;
+
+        storedBytes -= previous.capacity();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean contains(String name)
+    {
+        return entries.containsKey(name);
+    }
+
+    @Override
+    public synchronized OptionalLong offHeapBytes(String name)
+    {
+        ByteBuffer data = entries.get(name);
+        return data == null ? OptionalLong.empty() : OptionalLong.of(data.capacity());
+    }
+
+    @Override
+    public Set<String> names()
+    {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    @Override
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        entries.clear();
+        cache.clear();
+        cachedBytes = 0;
+        storedBytes = 0;
+        chunk = null;
+        chunkOffset = 0;
+
+        if (channel != null) {
+            try {
+                channel.truncate(0);
+            } catch (IOException e) {
+                LOGGER.warn(Prototype.LOG_MARKER, "Failed to truncate prototype storage", e);
+            }
+        }
+    }
+
+    /**
+     * @return a snapshot of the statistics of this storage
+     */
+    public synchronized StorageStatistics getStatistics()
+    {
+        return new StorageStatistics(
+                hitCount, missCount, evictionCount, cache.size(), cachedBytes, entries.size(), storedBytes
+        );
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        entries.clear();
+        cache.clear();
+        chunk = null;
+        if (channel != null)
+            channel.close();
+    }
+
+    private ByteBuffer store(byte[] bytes)
+    {
+        if (channel == null)
+            return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().asReadOnlyBuffer();
+
+        if (chunk == null || chunk.remaining() < bytes.length) {
+            int size = Math.max(CHUNK_SIZE, bytes.length);
+            try {
+                chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkOffset, size);
+            } catch (IOException e) {
+                throw new PrototypeException("Failed to map prototype storage", e);
+            }
+            chunkOffset += size;
+        }
+
+        ByteBuffer data = chunk.slice(chunk.position(), bytes.length).put(bytes).flip().asReadOnlyBuffer();
+        chunk.position(chunk.position() + bytes.length);
+        return data;
+    }
+
+    private void uncache(String name)
+    {
+        if (cache.remove(name) != null)
+            cachedBytes -= entries.get(name).capacity();
+    }
+
+    private void evict()
+    {
+        Iterator<Map.Entry<String, Prototype<?>>> iterator = cache.entrySet().iterator();
+        while (cachedBytes > maxCachedBytes && iterator.hasNext()) {
+            String name = iterator.next().getKey();
+            iterator.remove();
+            cachedBytes -= entries.get(name).capacity();
+            evictionCount++;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+/**
+ * A prototype template, building a family of variants that differ only by an argument. Instead of registering one
+ * prototype per variant (e.g. {@code items/sword_lvl1} to {@code items/sword_lvl100}), a single template is registered
+ * and derived values are computed from the argument in {@link #build(Object)}.<br>
+ * <br>
+ * Variants are built using {@link PrototypeManager#createType(String, Object)} or a {@link PrototypeReference}
+ * carrying an argument. {@link #build()} builds the variant for the {@link #defaultArgument() default argument}.
+ *
+ * @author     Benjamin Wied
+ *
+ * @param  <A>
+ *             argument type
+ * @param  <T>
+ *             type which is represented by this Prototype
+ *
+ * @see        SimpleParameterizedPrototype
+ */
+public interface ParameterizedPrototype<A, T> extends Prototype<T>
+{
+    /**
+     * Returns the type of the arguments accepted by this prototype. Arguments passed to
+     * {@link PrototypeManager#createType(String, Object)} are checked against this type.
+     *
+     * @return the argument type
+     */
+    Class<A> argumentType();
+
+    /**
+     * Returns the argument used by {@link #build()}.
+     *
+     * @return the default argument, never null
+     */
+    A defaultArgument();
+
+    /**
+     * Builds the variant of this prototype for the given argument.
+     *
+     * @param  argument
+     *                  argument, never null
+     *
+     * @return          the type built
+     */
+    T build(A argument);
+
+    /**
+     * Builds the variant of this prototype for the {@link #defaultArgument() default argument}.
+     *
+     * @return the type built
+     */
+    @Override
+    default T build()
+    {
+        return build(defaultArgument());
+    }
+}
@@ -23,6 +23,8 @@
  */
 package io.github.benjaminwied.prototype;
 
+import java.util.Set;
+
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
 
@@ -57,4 +59,28 @@ public interface Prototype<T>
      * @return the type built
      */
     T build();
+
+    /**
+     * Returns true if the types built by this prototype may be shared between callers. Concurrent asynchronous builds
+     * of a memoizable prototype are coalesced into a single build, whose result is handed to all callers.
+     *
+     * @return true if build results may be shared, false by default
+     *
+     * @see    PrototypeManager#createTypeAsync(String)
+     */
+    default boolean memoizable()
+    {
+        return false;
+    }
+
+    /**
+     * Returns the tags declared by this prototype. Tags are indexed on registration and can be queried using
+     * {@link PrototypeManager#prototypesWithTag(String)}.
+     *
+     * @return the tags of this prototype, empty by default
+     */
+    default Set<String> tags()
+    {
+        return Set.of();
+    }
 }
@@ -0,0 +1,65 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts prototypes to and from a serialized form.
+ *
+ * @author Benjamin Wied
+ *
+ * @see    OffHeapPrototypeStorage
+ * @see    JavaSerializationCodec
+ */
+public interface PrototypeCodec
+{
+    /**
+     * Serializes the given prototype.
+     *
+     * @param  prototype
+     *                            to serialize
+     *
+     * @return                    the serialized form
+     *
+     * @throws PrototypeException
+     *                            if the prototype cannot be serialized
+     */
+    byte[] encode(Prototype<?> prototype);
+
+    /**
+     * Deserializes a prototype. Implementations must not modify the buffer's content.
+     *
+     * @param  name
+     *                            name of the prototype
+     * @param  data
+     *                            serialized form, as returned by {@link #encode(Prototype)}
+     *
+     * @return                    the prototype
+     *
+     * @throws PrototypeException
+     *                            if the prototype cannot be deserialized
+     */
+    Prototype<?> decode(String name, ByteBuffer data);
+}
@@ -0,0 +1,122 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Describes a public instance field of a {@link Prototype} implementation, including a reflection-free accessor.
+ * Instances are usually created by generated {@link PrototypeMetadata} classes.
+ *
+ * @author     Benjamin Wied
+ *
+ * @param  <P>
+ *             prototype class declaring the field
+ *
+ * @see        PrototypeMetadata
+ */
+public final class PrototypeField<P extends Prototype<?>>
+{
+    private final String name;
+    private final Class<?> type;
+    private final boolean optionalReference;
+    private final Function<? super P, Object> accessor;
+
+    /**
+     * Constructs a new {@code PrototypeField}.
+     *
+     * @param  name
+     *                              field name
+     * @param  type
+     *                              erased field type
+     * @param  optionalReference
+     *                              true if the field is annotated with {@link OptionalReference}
+     * @param  accessor
+     *                              function reading the field value from a prototype
+     *
+     * @throws NullPointerException
+     *                              if either {@code name}, {@code type} or {@code accessor} is null
+     */
+    public PrototypeField(String name, Class<?> type, boolean optionalReference, Function<? super P, Object> accessor)
+    {
+        this.name = Objects.requireNonNull(name, "name must not be null");
+        this.type = Objects.requireNonNull(type, "type must not be null");
+        this.optionalReference = optionalReference;
+        this.accessor = Objects.requireNonNull(accessor, "accessor must not be null");
+    }
+
+    /**
+     * @return the field name
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return the erased field type
+     */
+    public Class<?> getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return true if the field is annotated with {@link OptionalReference}
+     */
+    public boolean isOptionalReference()
+    {
+        return optionalReference;
+    }
+
+    /**
+     * @return true if the field holds a {@link PrototypeReference}
+     */
+    public boolean isReference()
+    {
+        return type.equals(PrototypeReference.class);
+    }
+
+    /**
+     * @return true if the field holds a nested {@link Prototype}
+     */
+    public boolean isNestedPrototype()
+    {
+        return Prototype.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Reads the value of this field from the given prototype.
+     *
+     * @param  prototype
+     *                   to read from
+     *
+     * @return           the field value, may be null
+     */
+    public Object get(P prototype)
+    {
+        return accessor.apply(prototype);
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Secondary indexes over the prototypes registered with a {@link PrototypeManager}, mapping concrete prototype
+ * classes, prototype supertypes and {@link Prototype#tags() tags} to prototype names. Not thread-safe, the manager
+ * synchronizes all access.
+ *
+ * @author Benjamin Wied
+ */
+final class PrototypeIndex
+{
+    private static final ClassValue<List<Class<?>>> PROTOTYPE_TYPES = new ClassValue<>()
+    {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> type)
+        {
+            return prototypeTypes(type);
+        }
+    };
+
+    private final Map<String, Class<?>> classes = new HashMap<>();
+    private final Map<String, Set<String>> tags = new HashMap<>();
+
+    private final Map<Class<?>, Set<String>> byClass = new HashMap<>();
+    private final Map<Class<?>, Set<String>> byType = new HashMap<>();
+    private final Map<String, Set<String>> byTag = new HashMap<>();
+
+    void add(Prototype<?> prototype)
+    {
+        String name = prototype.name();
+        remove(name);
+
+        Class<?> type = prototype.getClass();
+        classes.put(name, type);
+        byClass.computeIfAbsent(type, key -> new HashSet<>()).add(name);
+        for (Class<?> supertype : PROTOTYPE_TYPES.get(type))
+            byType.computeIfAbsent(supertype, key -> new HashSet<>()).add(name);
+
+        Set<String> prototypeTags = Set.copyOf(prototype.tags());
+        if (!prototypeTags.isEmpty()) {
+            tags.put(name, prototypeTags);
+            for (String tag : prototypeTags)
+                byTag.computeIfAbsent(tag, key -> new HashSet<>()).add(name);
+        }
+    }
+
+    void remove(String name)
+    {
+        Class<?> type = classes.remove(name);
+        if (type != null) {
+            removeFrom(byClass, type, name);
+            for (Class<?> supertype : PROTOTYPE_TYPES.get(type))
+                removeFrom(byType, supertype, name);
+        }
+
+        Set<String> prototypeTags = tags.remove(name);
+        if (prototypeTags != null)
+            for (String tag : prototypeTags)
+                removeFrom(byTag, tag, name);
+    }
+
+    void clear()
+    {
+        classes.clear();
+        tags.clear();
+        byClass.clear();
+        byType.clear();
+        byTag.clear();
+    }
+
+    Class<?> classOf(String name)
+    {
+        return classes.get(name);
+    }
+
+    Set<String> namesOfClass(Class<?> type)
+    {
+        return view(byClass.get(type));
+    }
+
+    Set<String> namesOfType(Class<?> type)
+    {
+        return view(byType.get(type));
+    }
+
+    Set<String> namesWithTag(String tag)
+    {
+        return view(byTag.get(tag));
+    }
+
+    private static Set<String> view(Set<String> names)
+    {
+        return names == null ? Set.of() : Collections.unmodifiableSet(names);
+    }
+
+    private static <K> void removeFrom(Map<K, Set<String>> index, K key, String name)
+    {
+        Set<String> names = index.get(key);
+        if (names != null && names.remove(name) && names.isEmpty())
+            index.remove(key);
+    }
+
+    /**
+     * Returns the given class and all of its superclasses and interfaces, which are subtypes of {@link Prototype}.
+     */
+    private static List<Class<?>> prototypeTypes(Class<?> type)
+    {
+        Set<Class<?>> types = new HashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(type);
+
+        while (!pending.isEmpty()) {
+            Class<?> current = pending.poll();
+            if (!Prototype.class.isAssignableFrom(current) || !types.add(current))
+                continue;
+
+            if (current.getSuperclass() != null)
+                pending.add(current.getSuperclass());
+            pending.addAll(List.of(current.getInterfaces()));
+        }
+
+        return List.copyOf(types);
+    }
+}
@@ -23,51 +23,202 @@
  */
 package io.github.benjaminwied.prototype;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Stores prototypes for later retrieval and type generation.
+ * Stores prototypes for later retrieval and type generation.<br>
+ * <br>
+ * A manager may be layered on top of a parent manager using {@link #PrototypeManager(PrototypeManager)}. Such a child
+ * only stores its own registrations, which override those of its parent. Lookups are resolved child-first, all other
+ * prototypes are shared with the parent.
  *
  * @author Benjamin Wied
  *
  * @see    Prototype
  */
-public final class PrototypeManager
+public final class PrototypeManager implements Iterable<Prototype<?>>
 {
     private static final String NULL = " must not be null";
     private static final String NAME_NULL = "name" + NULL;
+    private static final String PROTOTYPE_NULL = "prototype" + NULL;
     private static final String REF_NULL = "reference" + NULL;
 
     private static final Pattern PROTOTYPE_NAME_PATTERN = Pattern
             .compile("^\\w+(?:/\\w+)*$", Pattern.UNICODE_CHARACTER_CLASS);
     private static final Logger LOGGER = LoggerFactory.getLogger(PrototypeManager.class);
+    private static final int MAX_CACHED_MISSES = 1024;
 
-    private final Map<String, Prototype<?>> prototypes;
+    private final PrototypeManager parent;
+    private final PrototypeStorage storage;
+    private final PrototypeIndex index;
+    private final Set<String> misses;
+    private final AsyncBuilder asyncBuilder;
+    private final List<Subscription> subscriptions;
+    private final FootprintTracker footprintTracker = new FootprintTracker();
+    private volatile long generation;
+    private long missesGeneration;
+    private PrototypeSnapshot snapshot;
 
+    /**
+     * Constructs a new, empty {@code PrototypeManager} without parent, keeping all prototypes on the heap.
+     */
     public PrototypeManager()
     {
-        prototypes = new HashMap<>();
+        this(null, PrototypeStorage.onHeap());
     }
 
     /**
+     * Constructs a new, empty {@code PrototypeManager} layered on top of the given parent. Prototypes registered with
+     * this manager override prototypes of the parent, which itself is never modified by this manager.
+     *
+     * @param  parent
+     *                              parent manager
+     *
+     * @throws NullPointerException
+     *                              if parent is null
+     */
+    public PrototypeManager(PrototypeManager parent)
+    {
+        this(Objects.requireNonNull(parent, "parent" + NULL), PrototypeStorage.onHeap());
+    }
+
+    /**
+     * Constructs a new, empty {@code PrototypeManager} without parent, keeping all prototypes in the given storage.
+     *
+     * @param  storage
+     *                              storage to use, must be empty
+     *
+     * @throws NullPointerException
+     *                              if storage is null
+     *
+     * @see                         OffHeapPrototypeStorage
+     */
+    public PrototypeManager(PrototypeStorage storage)
+    {
+        this(null, Objects.requireNonNull(storage, "storage" + NULL));
+    }
+
+    private PrototypeManager(PrototypeManager parent, PrototypeStorage storage)
+    {
+        this.parent = parent;
+        this.storage = storage;
+        index = new PrototypeIndex();
+        misses = new HashSet<>();
+        asyncBuilder = new AsyncBuilder();
+        subscriptions = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * @return an Optional containing the parent manager, or an empty Optional if this manager has no parent
+     */
+    public Optional<PrototypeManager> getParent()
+    {
+        return Optional.ofNullable(parent);
+    }
+
+    /**
+     * Returns a unmodifiable set containing all prototypes currently registered. Unlike {@link #stream()}, this copies
+     * all prototypes into a new set.
+     *
      * @return a unmodifiable snapshot of all prototypes currently registered
      */
     public Set<Prototype<?>> allPrototypes()
     {
-        return Collections.unmodifiableSet(
-                new HashSet<>(keys().stream().map(this::get).filter(Optional::isPresent).map(Optional::get).toList())
-        );
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(currentSnapshot().toArray())));
+    }
+
+    /**
+     * Returns a sequential stream of all prototypes currently registered. The stream is backed by an immutable snapshot
+     * of the registry, so it is not affected by later modifications. Snapshots are shared between all iterations until
+     * this manager or one of its parents is modified, so streaming does not copy the registry. Layered managers share
+     * the snapshot of their parent and only keep their own prototypes. The stream's spliterator splits evenly, which
+     * lets {@link Stream#parallel() parallel} streams scale with the number of cores.
+     *
+     * @return a stream of all prototypes currently registered
+     *
+     * @see    #spliterator()
+     */
+    public Stream<Prototype<?>> stream()
+    {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns an iterator over an immutable snapshot of all prototypes currently registered.
+     *
+     * @return an iterator over all prototypes currently registered
+     *
+     * @see    #stream()
+     */
+    @Override
+    public Iterator<Prototype<?>> iterator()
+    {
+        return Spliterators.iterator(currentSnapshot().spliterator());
+    }
+
+    /**
+     * Returns a spliterator over an immutable snapshot of all prototypes currently registered. The spliterator reports
+     * {@link Spliterator#SIZED SIZED}, {@link Spliterator#IMMUTABLE IMMUTABLE}, {@link Spliterator#DISTINCT DISTINCT}
+     * and {@link Spliterator#NONNULL NONNULL}, and also {@link Spliterator#SUBSIZED SUBSIZED} for managers without
+     * parent. Split spliterators of layered managers are not sized, as overridden prototypes are skipped on access.
+     *
+     * @return a spliterator over all prototypes currently registered
+     *
+     * @see    #stream()
+     */
+    @Override
+    public Spliterator<Prototype<?>> spliterator()
+    {
+        return currentSnapshot().spliterator();
+    }
+
+    /**
+     * Performs the given action for each prototype of an immutable snapshot of all prototypes currently registered.
+     * The action is not invoked while holding the lock of this manager, so it may modify this manager.
+     *
+     * @param  action
+     *                              action to perform
+     *
+     * @throws NullPointerException
+     *                              if action is null
+     *
+     * @see                         #stream()
+     */
+    @Override
+    public void forEach(Consumer<? super Prototype<?>> action)
+    {
+        Objects.requireNonNull(action, "action" + NULL);
+        currentSnapshot().spliterator().forEachRemaining(action);
     }
 
     /**
@@ -175,6 +326,9 @@ public final class PrototypeManager
     public <T> T createType(PrototypeReference<T, ?> reference)
     {
         Objects.requireNonNull(reference, REF_NULL);
+        if (reference.getArgument().isPresent())
+            return createType(reference.getTargetPrototypeName(), reference.getArgument().get());
+
         return createType(reference.getTargetPrototypeName());
     }
 
@@ -203,6 +357,9 @@ public final class PrototypeManager
     public <T> Optional<T> optionalCreateType(PrototypeReference<T, ?> reference)
     {
         Objects.requireNonNull(reference, REF_NULL);
+        if (reference.getArgument().isPresent())
+            return optionalCreateType(reference.getTargetPrototypeName(), reference.getArgument().get());
+
         return optionalCreateType(reference.getTargetPrototypeName());
     }
 
@@ -237,6 +394,476 @@ public final class PrototypeManager
         return prototype.map(Prototype::build);
     }
 
+    /**
+     * Builds the variant for the given argument using the {@link ParameterizedPrototype} registered under the given
+     * name. If no such prototype could be found, fail with an {@link IllegalArgumentException}.
+     *
+     * @param  <T>
+     *                                  type
+     * @param  name
+     *                                  prototype name
+     * @param  argument
+     *                                  argument to pass to {@link ParameterizedPrototype#build(Object)}
+     *
+     * @return                          the type built
+     *
+     * @throws NullPointerException
+     *                                  if name or argument is null
+     * @throws IllegalArgumentException
+     *                                  if no prototype was found, the prototype is not parameterized or the argument
+     *                                  is not of its {@link ParameterizedPrototype#argumentType() argument type}
+     *
+     * @see                             ParameterizedPrototype#build(Object)
+     * @see                             #optionalCreateType(String, Object)
+     */
+    public <T> T createType(String name, Object argument)
+    {
+        Objects.requireNonNull(name, NAME_NULL);
+
+        return this.<T>optionalCreateType(name, argument).orElseThrow(() -> new IllegalArgumentException(name));
+    }
+
+    /**
+     * Builds the variant for the given argument using the {@link ParameterizedPrototype} registered under the given
+     * name. If no such prototype could be found, returns an empty optional.
+     *
+     * @param  <T>
+     *                                  type
+     * @param  name
+     *                                  prototype name
+     * @param  argument
+     *                                  argument to pass to {@link ParameterizedPrototype#build(Object)}
+     *
+     * @return                          an optional containing the type built, or an empty optional if no prototype
+     *                                  was found
+     *
+     * @throws NullPointerException
+     *                                  if name or argument is null
+     * @throws IllegalArgumentException
+     *                                  if name is invalid, the prototype is not parameterized or the argument is not
+     *                                  of its {@link ParameterizedPrototype#argumentType() argument type}
+     *
+     * @see                             ParameterizedPrototype#build(Object)
+     * @see                             #createType(String, Object)
+     */
+    public <T> Optional<T> optionalCreateType(String name, Object argument)
+    {
+        Objects.requireNonNull(name, NAME_NULL);
+        Objects.requireNonNull(argument, "argument" + NULL);
+        checkName(name);
+
+        Optional<Prototype<T>> prototype = getPrototype(name);
+        if (prototype.isEmpty())
+            return Optional.empty();
+
+        if (!(prototype.get() instanceof ParameterizedPrototype<?, T> parameterized))
+            throw new IllegalArgumentException("Prototype " + name + " is not parameterized");
+
+        return Optional.ofNullable(buildVariant(parameterized, argument));
+    }
+
+    /**
+     * Builds {@code count} instances using the prototype registered under the given name, storing them in the given
+     * sink. If the sink {@link ColumnSink#supportsColumns() supports columns}, a {@link BulkPrototype} writes all
+     * instances directly into them. Otherwise, the prototype is built once per instance, passing each instance to
+     * {@link ColumnSink#store(int, Object)}.
+     *
+     * @param  <T>
+     *                                  type
+     * @param  name
+     *                                  prototype name
+     * @param  count
+     *                                  number of instances to build
+     * @param  sink
+     *                                  sink receiving the instances
+     *
+     * @throws NullPointerException
+     *                                  if name or sink is null
+     * @throws IllegalArgumentException
+     *                                  if name is invalid, no prototype was found, count is negative or a column
+     *                                  supplied by the sink is shorter than count
+     *
+     * @see                             BulkPrototype#buildInto(int, ColumnSink)
+     */
+    public <T> void createBulk(String name, int count, ColumnSink<T> sink)
+    {
+        Objects.requireNonNull(name, NAME_NULL);
+        Objects.requireNonNull(sink, "sink" + NULL);
+        checkName(name);
+        if (count < 0)
+            throw new IllegalArgumentException("count must not be negative: " + count);
+
+        Optional<Prototype<T>> optionalPrototype = getPrototype(name);
+        Prototype<T> prototype = optionalPrototype.orElseThrow(() -> new IllegalArgumentException(name));
+        if (sink.supportsColumns() && prototype instanceof BulkPrototype<T> bulk) {
+            bulk.buildInto(count, new CheckedColumnSink<>(sink, count));
+            return;
+        }
+
+        for (int i = 0; i < count; i++)
+            sink.store(i, prototype.build());
+    }
+
+    private static <A, T> T buildVariant(ParameterizedPrototype<A, T> prototype, Object argument)
+    {
+        if (!prototype.argumentType().isInstance(argument))
+            throw new IllegalArgumentException(
+                    "Prototype " + prototype.name() + " requires an argument of type "
+                            + prototype.argumentType().getName() + ", got " + argument.getClass().getName()
+            );
+
+        return prototype.build(prototype.argumentType().cast(argument));
+    }
+
+    /**
+     * Returns an immutable snapshot of all prototypes whose class is exactly the given class. This is answered from an
+     * index maintained on registration, in time proportional to the result size.
+     *
+     * @param  <P>
+     *                              prototype
+     * @param  prototypeClass
+     *                              concrete prototype class
+     *
+     * @return                      all prototypes of the given class
+     *
+     * @throws NullPointerException
+     *                              if prototypeClass is null
+     *
+     * @see                         #prototypesOfType(Class)
+     */
+    public synchronized <P extends Prototype<?>> Set<P> prototypesOfClass(Class<P> prototypeClass)
+    {
+        Objects.requireNonNull(prototypeClass, "prototypeClass" + NULL);
+        return collect(
+                index.namesOfClass(prototypeClass),
+                parent == null ? Set.of() : parent.prototypesOfClass(prototypeClass)
+        );
+    }
+
+    /**
+     * Returns an immutable snapshot of all prototypes which are instances of the given {@link Prototype} subtype. This
+     * is answered from an index maintained on registration, in time proportional to the result size.
+     *
+     * @param  <P>
+     *                              prototype
+     * @param  prototypeType
+     *                              prototype class or interface
+     *
+     * @return                      all prototypes of the given type
+     *
+     * @throws NullPointerException
+     *                              if prototypeType is null
+     *
+     * @see                         #prototypesOfClass(Class)
+     */
+    public synchronized <P extends Prototype<?>> Set<P> prototypesOfType(Class<P> prototypeType)
+    {
+        Objects.requireNonNull(prototypeType, "prototypeType" + NULL);
+        return collect(
+                index.namesOfType(prototypeType), parent == null ? Set.of() : parent.prototypesOfType(prototypeType)
+        );
+    }
+
+    /**
+     * Returns an immutable snapshot of all prototypes declaring the given {@link Prototype#tags() tag}. This is
+     * answered from an index maintained on registration, in time proportional to the result size.
+     *
+     * @param  tag
+     *                              tag to query
+     *
+     * @return                      all prototypes with the given tag
+     *
+     * @throws NullPointerException
+     *                              if tag is null
+     */
+    public synchronized Set<Prototype<?>> prototypesWithTag(String tag)
+    {
+        Objects.requireNonNull(tag, "tag" + NULL);
+        return collect(index.namesWithTag(tag), parent == null ? Set.of() : parent.prototypesWithTag(tag));
+    }
+
+    /**
+     * Collects the prototypes registered under the given names, and all inherited prototypes not overridden by this
+     * manager.
+     */
+    @SuppressWarnings("unchecked")
+    private <P extends Prototype<?>> Set<P> collect(Set<String> names, Set<P> inherited)
+    {
+        Set<P> prototypes = new HashSet<>();
+        for (String name : names)
+            storage.get(name).ifPresent(prototype -> prototypes.add((P) prototype));
+        for (P prototype : inherited)
+            if (!storage.contains(prototype.name()))
+                prototypes.add(prototype);
+
+        return Collections.unmodifiableSet(prototypes);
+    }
+
+    /**
+     * Asynchronously builds a type using the prototype registered under the given name. The build runs on the
+     * {@link #getBuildExecutor() build executor}. If the prototype is {@link Prototype#memoizable() memoizable},
+     * concurrent requests are coalesced into a single build and all callers receive the same result.<br>
+     * <br>
+     * Cancelling the returned future detaches the caller. The build itself is skipped if all callers detached before it
+     * started.
+     *
+     * @param  <T>
+     *                                  type
+     * @param  name
+     *                                  prototype name
+     *
+     * @return                          a future completed with the type built, or completed exceptionally with an
+     *                                  {@link IllegalArgumentException} if no prototype was found
+     *
+     * @throws NullPointerException
+     *                                  if name is null
+     * @throws IllegalArgumentException
+     *                                  if name is invalid
+     *
+     * @see                             #createType(String)
+     */
+    public <T> CompletableFuture<T> createTypeAsync(String name)
+    {
+        Objects.requireNonNull(name, NAME_NULL);
+        checkName(name);
+
+        Optional<Prototype<T>> prototype;
+        long buildGeneration;
+        synchronized (this) {
+            prototype = get(name);
+            buildGeneration = chainGeneration();
+        }
+        if (prototype.isEmpty())
+            return CompletableFuture.failedFuture(new IllegalArgumentException(name));
+
+        return asyncBuilder.build(name, buildGeneration, prototype.get());
+    }
+
+    /**
+     * Asynchronously builds a type using the prototype registered under the given name, failing with a
+     * {@link java.util.concurrent.TimeoutException TimeoutException} if the build does not complete within the given
+     * timeout.
+     *
+     * @param  <T>
+     *                                  type
+     * @param  name
+     *                                  prototype name
+     * @param  timeout
+     *                                  maximum time to wait for the build
+     *
+     * @return                          a future completed with the type built
+     *
+     * @throws NullPointerException
+     *                                  if name or timeout is null
+     * @throws IllegalArgumentException
+     *                                  if name is invalid
+     *
+     * @see                             #createTypeAsync(String)
+     */
+    public <T> CompletableFuture<T> createTypeAsync(String name, Duration timeout)
+    {
+        Objects.requireNonNull(timeout, "timeout" + NULL);
+        return this.<T>createTypeAsync(name).orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Asynchronously builds a type for the given reference.
+     *
+     * @param  <T>
+     *                              type
+     * @param  reference
+     *                              prototype reference
+     *
+     * @return                      a future completed with the type built
+     *
+     * @throws NullPointerException
+     *                              if reference is null
+     *
+     * @see                         #createTypeAsync(String)
+     */
+    public <T> CompletableFuture<T> createTypeAsync(PrototypeReference<T, ?> reference)
+    {
+        Objects.requireNonNull(reference, REF_NULL);
+        if (reference.getArgument().isPresent()) {
+            Object argument = reference.getArgument().get();
+            return CompletableFuture.supplyAsync(
+                    () -> this.<T>createType(reference.getTargetPrototypeName(), argument), getBuildExecutor()
+            );
+        }
+
+        return createTypeAsync(reference.getTargetPrototypeName());
+    }
+
+    /**
+     * @return the executor used for asynchronous builds
+     */
+    public Executor getBuildExecutor()
+    {
+        return asyncBuilder.getExecutor();
+    }
+
+    /**
+     * Sets the executor used for asynchronous builds. By default, builds run on virtual threads if the runtime
+     * supports them, and on a shared pool of daemon threads otherwise.
+     *
+     * @param  executor
+     *                              executor to use
+     *
+     * @throws NullPointerException
+     *                              if executor is null
+     */
+    public void setBuildExecutor(Executor executor)
+    {
+        asyncBuilder.setExecutor(executor);
+    }
+
+    /**
+     * Builds every registered prototype once, discarding the results.
+     *
+     * @return a report containing build times and failures
+     *
+     * @see    #warmUp(WarmUpOptions)
+     */
+    public WarmUpReport warmUp()
+    {
+        return warmUp(WarmUpOptions.all());
+    }
+
+    /**
+     * Builds all registered prototypes matching the options' filter once in parallel, discarding the results. This
+     * moves one-time costs like class loading, JIT compilation or lazy initialization off the request path, and
+     * detects failing {@link Prototype#build()} methods early. Any exception or error thrown by a build, including a
+     * {@link StackOverflowError}, is reported as failure. Only other {@link VirtualMachineError VirtualMachineErrors}
+     * abort the warm-up.
+     *
+     * @param  options
+     *                              warm-up options
+     *
+     * @return                      a report containing build times and failures
+     *
+     * @throws NullPointerException
+     *                              if options is null
+     */
+    public WarmUpReport warmUp(WarmUpOptions options)
+    {
+        Objects.requireNonNull(options, "options" + NULL);
+
+        List<String> names = new ArrayList<>(keys());
+        names.removeIf(options.getFilter().negate());
+
+        LOGGER.info(Prototype.LOG_MARKER, "Warming up {} prototypes...", names.size());
+
+        Map<String, Duration> buildTimes = new ConcurrentHashMap<>();
+        Map<String, Throwable> failures = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(options.getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "prototype-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture.allOf(
+                    names.stream()
+                            .map(name -> CompletableFuture.runAsync(() -> warmUp(name, buildTimes, failures), executor))
+                            .toArray(CompletableFuture[]::new)
+            ).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        WarmUpReport report = new WarmUpReport(buildTimes, failures, Duration.ofNanos(System.nanoTime() - start));
+        LOGGER.info(Prototype.LOG_MARKER, "Warm-up finished: {}", report);
+        return report;
+    }
+
+    private void warmUp(String name, Map<String, Duration> buildTimes, Map<String, Throwable> failures)
+    {
+        Optional<Prototype<?>> prototype = get(name);
+        if (prototype.isEmpty())
+            return;
+
+        long start = System.nanoTime();
+        try {
+            prototype.get().build();
+        } catch (Throwable e) {
+            // A recursive build overflows the stack of its own thread only, other VM errors affect the whole runtime
+            if (e instanceof VirtualMachineError && !(e instanceof StackOverflowError))
+                throw e;
+
+            LOGGER.error(Prototype.LOG_MARKER, "Failed to build prototype {} during warm-up", name, e);
+            failures.put(name, e);
+        } finally {
+            buildTimes.put(name, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Estimates the retained heap size of the prototypes registered in this manager, not including its parent. The
+     * estimate walks the object graph of each prototype up to a depth of 8, counting objects reachable from several
+     * prototypes once.<br>
+     * <br>
+     * The result is cached until this manager is modified, so calling this method periodically (e.g. to expose it as a
+     * metric) is cheap for stable registries. Prototypes kept off-heap by the {@link PrototypeStorage} are counted by
+     * their serialized size, without deserializing them.
+     *
+     * @return the estimated footprint
+     *
+     * @see    #footprint(int)
+     */
+    public Footprint footprint()
+    {
+        return footprint(FootprintTracker.DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * Estimates the retained heap size of the prototypes registered in this manager, walking object graphs up to the
+     * given depth. Objects further away from their prototype are not counted.
+     *
+     * @param  maxDepth
+     *                                  maximum depth of counted objects, 0 counts only the prototypes themselves
+     *
+     * @return                          the estimated footprint
+     *
+     * @throws IllegalArgumentException
+     *                                  if maxDepth is negative
+     *
+     * @see                             #footprint()
+     */
+    public Footprint footprint(int maxDepth)
+    {
+        if (maxDepth < 0)
+            throw new IllegalArgumentException("maxDepth must not be negative");
+
+        Map<String, Prototype<?>> prototypes = new HashMap<>();
+        Map<String, Long> offHeapBytes = new HashMap<>();
+        Map<String, Class<?>> prototypeClasses = new HashMap<>();
+        long snapshotGeneration;
+        synchronized (this) {
+            Footprint current = footprintTracker.current(generation, maxDepth);
+            if (current != null)
+                return current;
+
+            snapshotGeneration = generation;
+            for (String name : storage.names()) {
+                OptionalLong bytes = storage.offHeapBytes(name);
+                if (bytes.isPresent()) {
+                    // The index knows the class, so off-heap prototypes need not be deserialized
+                    Class<?> type = index.classOf(name);
+                    offHeapBytes.put(name, bytes.getAsLong());
+                    prototypeClasses.put(name, type != null ? type : Prototype.class);
+                } else {
+                    storage.get(name).ifPresent(prototype -> {
+                        prototypes.put(name, prototype);
+                        prototypeClasses.put(name, prototype.getClass());
+                    });
+                }
+            }
+        }
+
+        return footprintTracker.update(prototypes, offHeapBytes, prototypeClasses, snapshotGeneration, maxDepth);
+    }
+
     /**
      * Checks if the given string matches conditions for a prototype name. This method either passes if the name is
      * valid, or throws an {@link IllegalArgumentException} if not.
@@ -257,33 +884,63 @@ public final class PrototypeManager
     }
 
     /**
-     * @return a (immutable) set containing the names of all registered {@link Prototype Prototypes}
+     * Returns an immutable set containing the names of all registered {@link Prototype Prototypes}, including those
+     * inherited from parents. The set is a snapshot, which is not affected by later modifications.
+     *
+     * @return the names of all registered prototypes
      */
     public synchronized Set<String> keys()
     {
-        return Collections.unmodifiableSet(prototypes.keySet());
+        if (!(storage instanceof HeapPrototypeStorage)) {
+            // Avoid decoding all prototypes just for their names
+            Set<String> names = new HashSet<>(storage.names());
+            if (parent != null)
+                names.addAll(parent.keys());
+
+            return Collections.unmodifiableSet(names);
+        }
+
+        return currentSnapshot().names();
     }
 
     /**
-     * Clears the registry, forcing all prototypes to regenerate.
+     * Clears the registry, forcing all prototypes to regenerate. For layered managers, only the prototypes registered
+     * with this manager are removed.
      */
     public synchronized void clear()
     {
-        prototypes.clear();
+        Set<String> removed = Set.copyOf(storage.names());
+        storage.clear();
+        index.clear();
+        commit(Set.of(), Set.of(), removed);
     }
 
     /**
-     * Registers all prototypes in the specified map.
+     * Registers all prototypes in the specified map. Subscribers are notified with a single change. If the storage
+     * fails to store a prototype, the prototypes registered before are kept and published.
+     *
+     * @param  prototypes
+     *                              to register
      *
-     * @param prototypes
-     *                   to register
+     * @throws NullPointerException
+     *                              if prototypes or any of its values is null, nothing is registered in this case
      *
-     * @see              #register(Prototype)
+     * @see                         #register(Prototype)
      */
     public synchronized void registerAll(Map<String, Prototype<?>> prototypes)
     {
-        for (Map.Entry<String, Prototype<?>> entry : prototypes.entrySet())
-            register(entry.getValue());
+        Objects.requireNonNull(prototypes, "prototypes" + NULL);
+        for (Prototype<?> prototype : prototypes.values())
+            Objects.requireNonNull(prototype, PROTOTYPE_NULL);
+
+        Set<String> added = new HashSet<>();
+        Set<String> replaced = new HashSet<>();
+        try {
+            for (Prototype<?> prototype : prototypes.values())
+                put(prototype, added, replaced, true);
+        } finally {
+            commit(added, replaced, Set.of());
+        }
     }
 
     /**
@@ -297,17 +954,208 @@ public final class PrototypeManager
      */
     public synchronized void register(Prototype<?> prototype)
     {
-        Objects.requireNonNull(prototype, "prototype must not be null");
+        Objects.requireNonNull(prototype, PROTOTYPE_NULL);
+
+        Set<String> added = new HashSet<>();
+        Set<String> replaced = new HashSet<>();
+        try {
+            put(prototype, added, replaced, true);
+        } finally {
+            commit(added, replaced, Set.of());
+        }
+    }
+
+    /**
+     * Removes the prototype registered under the given name. For layered managers, only prototypes registered with
+     * this manager can be removed.
+     *
+     * @param  name
+     *                              prototype name
+     *
+     * @return                      true if a prototype was removed
+     *
+     * @throws NullPointerException
+     *                              if name is null
+     */
+    public synchronized boolean unregister(String name)
+    {
+        Objects.requireNonNull(name, NAME_NULL);
+        if (!storage.remove(name))
+            return false;
+
+        index.remove(name);
+        commit(Set.of(), Set.of(), Set.of(name));
+        return true;
+    }
+
+    /**
+     * Atomically registers and removes the given prototypes. Readers observe either none or all of the modifications,
+     * and subscribers are notified with a single change. All elements are checked before anything is modified. Only
+     * if the storage fails to store a prototype, the modifications applied before are kept and published.
+     *
+     * @param  registered
+     *                              prototypes to register, replacing previously registered prototypes with the same
+     *                              name
+     * @param  removed
+     *                              names of prototypes to remove, applied before registering
+     *
+     * @throws NullPointerException
+     *                              if any argument or element is null, nothing is modified in this case
+     */
+    public synchronized void update(Collection<? extends Prototype<?>> registered, Collection<String> removed)
+    {
+        Objects.requireNonNull(registered, "registered" + NULL);
+        Objects.requireNonNull(removed, "removed" + NULL);
+        for (Prototype<?> prototype : registered)
+            Objects.requireNonNull(prototype, PROTOTYPE_NULL);
+        for (String name : removed)
+            Objects.requireNonNull(name, NAME_NULL);
+
+        Set<String> added = new HashSet<>();
+        Set<String> replaced = new HashSet<>();
+        Set<String> removedNames = new HashSet<>();
+        try {
+            for (String name : removed)
+                if (storage.remove(name)) {
+                    index.remove(name);
+                    removedNames.add(name);
+                }
+
+            for (Prototype<?> prototype : registered) {
+                put(prototype, added, replaced, false);
+                if (removedNames.remove(prototype.name()))
+                    replaced.add(prototype.name());
+            }
+        } finally {
+            added.removeAll(replaced);
+            commit(added, replaced, removedNames);
+        }
+    }
+
+    /**
+     * Atomically replaces all prototypes registered with this manager by the given prototypes. Unlike {@link #clear()}
+     * followed by {@link #registerAll(Map)}, readers never observe a partially populated registry.
+     *
+     * @param  prototypes
+     *                              new content of this manager
+     *
+     * @throws NullPointerException
+     *                              if prototypes or any of its elements is null
+     */
+    public synchronized void replaceAll(Collection<? extends Prototype<?>> prototypes)
+    {
+        Objects.requireNonNull(prototypes, "prototypes" + NULL);
+
+        Set<String> removed = new HashSet<>(storage.names());
+        for (Prototype<?> prototype : prototypes)
+            removed.remove(Objects.requireNonNull(prototype, PROTOTYPE_NULL).name());
+
+        update(prototypes, removed);
+    }
+
+    private void put(Prototype<?> prototype, Set<String> added, Set<String> replaced, boolean warnOnReplace)
+    {
         String name = prototype.name();
-        if (prototypes.containsKey(name))
-            LOGGER.warn("A prototype with name {} is already registered", name);
+        if (storage.put(prototype)) {
+            if (warnOnReplace)
+                LOGGER.warn("A prototype with name {} is already registered", name);
+            if (!added.contains(name))
+                replaced.add(name);
+        } else
+            added.add(name);
+
+        index.add(prototype);
+    }
+
+    /**
+     * Advances the generation and notifies subscribers, unless nothing was modified.
+     */
+    private void commit(Set<String> added, Set<String> replaced, Set<String> removed)
+    {
+        if (added.isEmpty() && replaced.isEmpty() && removed.isEmpty())
+            return;
+
+        generation++;
+        if (subscriptions.isEmpty())
+            return;
+
+        RegistryChange change = new RegistryChange(added, replaced, removed, generation);
+        for (Subscription subscription : subscriptions)
+            subscription.publish(change);
+    }
+
+    /**
+     * Returns the generation of this manager. The generation is advanced by each modification of this manager, but not
+     * by modifications of its parent.
+     *
+     * @return the current generation
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Returns an immutable snapshot of all prototypes currently registered, together with the generation of this
+     * manager at the time the snapshot was taken. Unlike calling {@link #getGeneration()} and {@link #stream()}
+     * separately, no modification can happen in between.
+     *
+     * @return a consistent snapshot of this manager
+     */
+    public synchronized RegistrySnapshot snapshot()
+    {
+        return new RegistrySnapshot(generation, currentSnapshot().toArray());
+    }
+
+    /**
+     * Subscribes the given listener to modifications of this manager, delivering changes on a default executor.
+     *
+     * @param  listener
+     *                              listener to notify
+     *
+     * @return                      the subscription, which must be closed to stop notifications
+     *
+     * @throws NullPointerException
+     *                              if listener is null
+     *
+     * @see                         #subscribe(RegistryListener, Executor)
+     */
+    public Subscription subscribe(RegistryListener listener)
+    {
+        return subscribe(listener, AsyncBuilder.defaultExecutor());
+    }
+
+    /**
+     * Subscribes the given listener to modifications of this manager. Each call to {@link #register(Prototype)},
+     * {@link #registerAll(Map)}, {@link #unregister(String)} or {@link #clear()} produces one {@link RegistryChange},
+     * which is delivered asynchronously on the given executor. Modifying the manager never waits for listeners, changes
+     * published while the listener is busy are merged. Modifications of the parent of a layered manager are not
+     * reported.
+     *
+     * @param  listener
+     *                              listener to notify
+     * @param  executor
+     *                              executor to deliver changes on
+     *
+     * @return                      the subscription, which must be closed to stop notifications
+     *
+     * @throws NullPointerException
+     *                              if listener or executor is null
+     */
+    public Subscription subscribe(RegistryListener listener, Executor executor)
+    {
+        Objects.requireNonNull(listener, "listener" + NULL);
+        Objects.requireNonNull(executor, "executor" + NULL);
 
-        prototypes.put(name, prototype);
+        Subscription subscription = new Subscription(listener, executor, subscriptions::remove);
+        subscriptions.add(subscription);
+        return subscription;
     }
 
     /**
      * Returns a optional containing the registered prototype, or an empty Optional is no prototype is registered with
-     * the given name.
+     * the given name. Lookups are resolved child-first, names not found in any layer are cached until this manager or
+     * one of its parents is modified.
      *
      * @param  <P>
      *              prototype class
@@ -321,8 +1169,68 @@ public final class PrototypeManager
     {
         Objects.requireNonNull(name, "name must not be null");
 
-        if (prototypes.containsKey(name))
-            return Optional.of((P) prototypes.get(name));
-        return Optional.empty();
+        Optional<P> prototype = (Optional<P>) storage.get(name);
+        if (prototype.isPresent() || parent == null)
+            return prototype;
+
+        long currentGeneration = chainGeneration();
+        if (missesGeneration != currentGeneration || misses.size() >= MAX_CACHED_MISSES) {
+            misses.clear();
+            missesGeneration = currentGeneration;
+        }
+        if (misses.contains(name))
+            return Optional.empty();
+
+        prototype = parent.get(name);
+        if (prototype.isEmpty())
+            misses.add(name);
+
+        return prototype;
+    }
+
+    /**
+     * Returns the sum of the generations of this manager and all of its parents. Since generations only increase, this
+     * changes whenever any layer is modified.
+     */
+    private long chainGeneration()
+    {
+        long chainGeneration = 0;
+        for (PrototypeManager manager = this; manager != null; manager = manager.parent)
+            chainGeneration += manager.generation;
+
+        return chainGeneration;
+    }
+
+    /**
+     * Returns the snapshot of all prototypes visible from this manager, creating a new one if this manager or one of
+     * its parents was modified since the last snapshot. If only a parent was modified, the prototypes of this manager
+     * are reused. Snapshots of prototypes not stored on the heap are not kept, as this would retain decoded copies of
+     * all prototypes.
+     */
+    private synchronized PrototypeSnapshot currentSnapshot()
+    {
+        long currentGeneration = chainGeneration();
+        if (snapshot != null && snapshot.chainGeneration == currentGeneration)
+            return snapshot;
+
+        boolean cacheable = storage instanceof HeapPrototypeStorage;
+        PrototypeSnapshot inherited = parent == null ? null : parent.currentSnapshot();
+        PrototypeSnapshot created;
+        if (snapshot != null && snapshot.generation == generation) {
+            created = snapshot.withInherited(currentGeneration, inherited, cacheable);
+        } else {
+            List<Prototype<?>> prototypes = new ArrayList<>(storage.size());
+            for (String name : storage.names())
+                storage.get(name).ifPresent(prototypes::add);
+
+            created = new PrototypeSnapshot(
+                    currentGeneration, generation, prototypes.toArray(Prototype<?>[]::new), inherited, cacheable
+            );
+        }
+
+        if (created.cacheable)
+            snapshot = created;
+
+        return created;
     }
 }
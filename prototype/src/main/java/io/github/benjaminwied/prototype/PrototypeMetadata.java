@@ -0,0 +1,58 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.util.List;
+
+/**
+ * Compile-time metadata of a {@link Prototype} implementation. Implementations are generated by the
+ * {@code prototype-processor} annotation processor and located using {@link PrototypeMetadataIndex}.
+ *
+ * @author     Benjamin Wied
+ *
+ * @param  <P>
+ *             prototype class described by this metadata
+ *
+ * @see        PrototypeMetadataIndex
+ */
+public interface PrototypeMetadata<P extends Prototype<?>>
+{
+    /**
+     * @return the prototype class described by this metadata
+     */
+    Class<P> prototypeClass();
+
+    /**
+     * @return all public instance fields of the prototype class, including inherited ones
+     */
+    List<PrototypeField<P>> fields();
+
+    /**
+     * @return all fields holding a {@link PrototypeReference}
+     */
+    default List<PrototypeField<P>> referenceFields()
+    {
+        return fields().stream().filter(PrototypeField::isReference).toList();
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Locates generated {@link PrototypeMetadata} classes.<br>
+ * <br>
+ * The {@code prototype-processor} annotation processor writes a class index to {@value #INDEX_RESOURCE}, mapping
+ * prototype classes to their metadata classes. Each prototype class is looked up at most once, prototypes without
+ * generated metadata are reported as absent, so that callers can fall back to reflection.
+ *
+ * @author Benjamin Wied
+ *
+ * @see    PrototypeMetadata
+ */
+public final class PrototypeMetadataIndex
+{
+    /**
+     * Location of the class index written by the annotation processor.
+     */
+    public static final String INDEX_RESOURCE = "META-INF/io.github.benjaminwied.prototype/metadata.index";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrototypeMetadataIndex.class);
+
+    private static final Map<ClassLoader, Map<String, String>> INDICES = new WeakHashMap<>();
+    private static final ClassValue<Optional<PrototypeMetadata<?>>> METADATA = new ClassValue<>()
+    {
+        @Override
+        protected Optional<PrototypeMetadata<?>> computeValue(Class<?> type)
+        {
+            return load(type);
+        }
+    };
+
+    private PrototypeMetadataIndex()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns an Optional containing the generated metadata for the given prototype class, or an empty Optional if no
+     * metadata was generated.
+     *
+     * @param  <P>
+     *                              prototype
+     * @param  prototypeClass
+     *                              class to look up
+     *
+     * @return                      the generated metadata
+     *
+     * @throws NullPointerException
+     *                              if prototypeClass is null
+     */
+    @SuppressWarnings("unchecked")
+    public static <P extends Prototype<?>> Optional<PrototypeMetadata<P>> lookup(Class<P> prototypeClass)
+    {
+        Objects.requireNonNull(prototypeClass, "prototypeClass must not be null");
+        return METADATA.get(prototypeClass).map(metadata -> (PrototypeMetadata<P>) metadata);
+    }
+
+    private static Optional<PrototypeMetadata<?>> load(Class<?> type)
+    {
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null)
+            return Optional.empty();
+
+        String metadataClassName = index(loader).get(type.getName());
+        if (metadataClassName == null)
+            return Optional.empty();
+
+        try {
+            PrototypeMetadata<?> metadata = (PrototypeMetadata<?>) Class.forName(metadataClassName, true, loader)
+                    .getDeclaredConstructor().newInstance();
+            if (!metadata.prototypeClass().equals(type)) {
+                LOGGER.warn(
+                        Prototype.LOG_MARKER, "Metadata {} does not describe {}", metadataClassName, type.getName()
+                );
+                return Optional.empty();
+            }
+
+            return Optional.of(metadata);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            LOGGER.warn(Prototype.LOG_MARKER, "Failed to load metadata {}", metadataClassName, e);
+            return Optional.empty();
+        }
+    }
+
+    private static Map<String, String> index(ClassLoader loader)
+    {
+        synchronized (INDICES) {
+            return INDICES.computeIfAbsent(loader, PrototypeMetadataIndex::readIndex);
+        }
+    }
+
+    private static Map<String, String> readIndex(ClassLoader loader)
+    {
+        Map<String, String> index = new HashMap<>();
+
+        try {
+            Enumeration<URL> resources = loader.getResources(INDEX_RESOURCE);
+            while (resources.hasMoreElements())
+                readIndex(resources.nextElement(), index);
+        } catch (IOException e) {
+            LOGGER.warn(Prototype.LOG_MARKER, "Failed to read prototype metadata index", e);
+        }
+
+        LOGGER.debug(Prototype.LOG_MARKER, "Found metadata for {} prototype classes", index.size());
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static void readIndex(URL resource, Map<String, String> index) throws IOException
+    {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8)
+        )) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf('=');
+                if (line.isBlank() || line.startsWith("#") || separator < 0)
+                    continue;
+
+                index.put(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+/**
+ * Parses prototype definitions read by an {@link ArchiveLoader}. Parsers are invoked concurrently for different
+ * entries and must therefore be thread-safe.
+ *
+ * @author Benjamin Wied
+ */
+@FunctionalInterface
+public interface PrototypeParser
+{
+    /**
+     * Parses the prototypes defined by a single entry.
+     *
+     * @param  entryName
+     *                     name of the entry, relative to the archive or resource directory and separated by {@code /}
+     * @param  content
+     *                     content of the entry. The buffer may be a read-only view of a memory-mapped archive and
+     *                     must not be retained after this method returns.
+     *
+     * @return             the prototypes defined by the entry
+     *
+     * @throws IOException
+     *                     if the entry could not be parsed
+     */
+    Collection<? extends Prototype<?>> parse(String entryName, ByteBuffer content) throws IOException;
+}
@@ -24,6 +24,7 @@
 package io.github.benjaminwied.prototype;
 
 import java.util.Objects;
+import java.util.Optional;
 import java.util.regex.Pattern;
 
 import com.fasterxml.jackson.annotation.JacksonInject;
@@ -46,6 +47,7 @@ public final class PrototypeReference<T, P extends Prototype<T>>
             .compile("/\\w+/\\.\\.", Pattern.UNICODE_CHARACTER_CLASS);
 
     private final String targetPrototypeName;
+    private final Object argument;
 
     /**
      * Constructs a new {@code PrototypeReference} using the given {@code sourcePrototypeName} and
@@ -99,6 +101,7 @@ public final class PrototypeReference<T, P extends Prototype<T>>
         }
 
         PrototypeManager.checkName(targetPrototypeName);
+        argument = null;
     }
 
     /**
@@ -118,6 +121,33 @@ public final class PrototypeReference<T, P extends Prototype<T>>
         PrototypeManager.checkName(name);
 
         targetPrototypeName = name;
+        argument = null;
+    }
+
+    private PrototypeReference(PrototypeReference<T, P> reference, Object argument)
+    {
+        targetPrototypeName = reference.targetPrototypeName;
+        this.argument = argument;
+    }
+
+    /**
+     * Returns a reference to the same prototype, carrying the given argument. Building the returned reference builds
+     * the variant of the {@link ParameterizedPrototype} for this argument.
+     *
+     * @param  argument
+     *                              argument to pass to {@link ParameterizedPrototype#build(Object)}
+     *
+     * @return                      a reference carrying the argument
+     *
+     * @throws NullPointerException
+     *                              if argument is null
+     *
+     * @see                         PrototypeManager#createType(String, Object)
+     */
+    public PrototypeReference<T, P> withArgument(Object argument)
+    {
+        Objects.requireNonNull(argument, "argument must not be null");
+        return new PrototypeReference<>(this, argument);
     }
 
     private static String compressPath(String path)
@@ -135,4 +165,13 @@ public final class PrototypeReference<T, P extends Prototype<T>>
     {
         return targetPrototypeName;
     }
+
+    /**
+     * @return the argument passed to the {@link ParameterizedPrototype}, or an empty Optional if this reference does
+     *         not carry an argument
+     */
+    public Optional<Object> getArgument()
+    {
+        return Optional.ofNullable(argument);
+    }
 }
@@ -0,0 +1,315 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Immutable snapshot of all prototypes visible from a {@link PrototypeManager} at a given chain generation.<br>
+ * <br>
+ * A snapshot only holds the prototypes registered with its own manager and references the snapshot of the parent,
+ * which is shared by all children. Inherited prototypes are filtered on access, so the memory kept per child is
+ * proportional to its overrides, and modifying the parent only rebuilds the (usually small) layers of its children.
+ *
+ * @author Benjamin Wied
+ */
+final class PrototypeSnapshot
+{
+    private static final int CHARACTERISTICS = Spliterator.IMMUTABLE | Spliterator.DISTINCT | Spliterator.NONNULL;
+
+    final long chainGeneration;
+    final long generation;
+    final boolean cacheable;
+
+    private final Prototype<?>[] own;
+    private final Set<String> ownNames;
+    private final PrototypeSnapshot inherited;
+    private final PrototypeSnapshot[] layers;
+    private final int size;
+    private final Set<String> names;
+
+    /**
+     * @param chainGeneration
+     *                        chain generation of the manager
+     * @param generation
+     *                        generation of the manager
+     * @param own
+     *                        prototypes registered with the manager
+     * @param inherited
+     *                        snapshot of the parent, or null
+     * @param cacheable
+     *                        true if the manager may keep this snapshot
+     */
+    PrototypeSnapshot(
+            long chainGeneration, long generation, Prototype<?>[] own, PrototypeSnapshot inherited, boolean cacheable
+    )
+    {
+        this(chainGeneration, generation, own, namesOf(own), inherited, cacheable);
+    }
+
+    private PrototypeSnapshot(
+            long chainGeneration, long generation, Prototype<?>[] own, Set<String> ownNames,
+            PrototypeSnapshot inherited, boolean cacheable
+    )
+    {
+        this.chainGeneration = chainGeneration;
+        this.generation = generation;
+        this.own = own;
+        this.ownNames = ownNames;
+        this.inherited = inherited;
+        this.cacheable = cacheable && (inherited == null || inherited.cacheable);
+
+        if (inherited == null) {
+            layers = new PrototypeSnapshot[] { this };
+            size = own.length;
+            names = Collections.unmodifiableSet(ownNames);
+        } else {
+            layers = new PrototypeSnapshot[inherited.layers.length + 1];
+            layers[0] = this;
+            System.arraycopy(inherited.layers, 0, layers, 1, inherited.layers.length);
+
+            int overridden = 0;
+            for (String name : ownNames)
+                if (inherited.contains(name))
+                    overridden++;
+            size = own.length + inherited.size - overridden;
+            names = new KeySet();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the same prototypes of the manager over a new parent snapshot. The own layer is shared.
+     */
+    PrototypeSnapshot withInherited(long newChainGeneration, PrototypeSnapshot newInherited, boolean newCacheable)
+    {
+        return new PrototypeSnapshot(newChainGeneration, generation, own, ownNames, newInherited, newCacheable);
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    boolean contains(Object name)
+    {
+        for (PrototypeSnapshot layer : layers)
+            if (layer.ownNames.contains(name))
+                return true;
+
+        return false;
+    }
+
+    /**
+     * @return an immutable view of the names of all visible prototypes
+     */
+    Set<String> names()
+    {
+        return names;
+    }
+
+    /**
+     * Returns all visible prototypes. The array must not be modified, it may be shared if the manager has no parent.
+     */
+    Prototype<?>[] toArray()
+    {
+        if (inherited == null)
+            return own;
+
+        Prototype<?>[] prototypes = new Prototype<?>[size];
+        Spliterator<Prototype<?>> spliterator = spliterator();
+        for (int i = 0; i < prototypes.length; i++) {
+            int index = i;
+            spliterator.tryAdvance(prototype -> prototypes[index] = prototype);
+        }
+
+        return prototypes;
+    }
+
+    Spliterator<Prototype<?>> spliterator()
+    {
+        if (inherited == null)
+            return Spliterators.spliterator(own, CHARACTERISTICS);
+
+        int last = layers.length - 1;
+        return new LayeredSpliterator(0, 0, last, layers[last].own.length, size);
+    }
+
+    private static Set<String> namesOf(Prototype<?>[] prototypes)
+    {
+        Set<String> names = new HashSet<>(prototypes.length * 4 / 3 + 1);
+        for (Prototype<?> prototype : prototypes)
+            names.add(prototype.name());
+
+        return names;
+    }
+
+    /**
+     * Returns true if a prototype with the given name is registered in one of the layers above the given layer.
+     */
+    private boolean isOverridden(String name, int layer)
+    {
+        for (int i = 0; i < layer; i++)
+            if (layers[i].ownNames.contains(name))
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Names of all visible prototypes, backed by the layers.
+     */
+    private final class KeySet extends AbstractSet<String>
+    {
+        @Override
+        public boolean contains(Object o)
+        {
+            return PrototypeSnapshot.this.contains(o);
+        }
+
+        @Override
+        public Iterator<String> iterator()
+        {
+            Iterator<Prototype<?>> prototypes = Spliterators.iterator(PrototypeSnapshot.this.spliterator());
+            return new Iterator<>()
+            {
+                @Override
+                public boolean hasNext()
+                {
+                    return prototypes.hasNext();
+                }
+
+                @Override
+                public String next()
+                {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+
+                    return prototypes.next().name();
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+    }
+
+    /**
+     * Spliterator over the layers from the given layer and index up to the given fence in the last layer, skipping
+     * overridden prototypes. It is sized until split, splits by layer first and then evenly within a layer.
+     */
+    private final class LayeredSpliterator implements Spliterator<Prototype<?>>
+    {
+        private int layer;
+        private int index;
+        private final int lastLayer;
+        private final int fence;
+        private long remaining;
+
+        LayeredSpliterator(int layer, int index, int lastLayer, int fence, long remaining)
+        {
+            this.layer = layer;
+            this.index = index;
+            this.lastLayer = lastLayer;
+            this.fence = fence;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Prototype<?>> action)
+        {
+            while (true) {
+                Prototype<?>[] prototypes = layers[layer].own;
+                int limit = layer == lastLayer ? fence : prototypes.length;
+                if (index < limit) {
+                    Prototype<?> prototype = prototypes[index++];
+                    if (isOverridden(prototype.name(), layer))
+                        continue;
+
+                    if (remaining >= 0)
+                        remaining--;
+                    action.accept(prototype);
+                    return true;
+                }
+
+                if (layer == lastLayer)
+                    return false;
+
+                layer++;
+                index = 0;
+            }
+        }
+
+        @Override
+        public Spliterator<Prototype<?>> trySplit()
+        {
+            LayeredSpliterator prefix;
+            if (layer < lastLayer) {
+                int middle = layer + (lastLayer - layer + 1) / 2;
+                prefix = new LayeredSpliterator(layer, index, middle - 1, layers[middle - 1].own.length, -1);
+                layer = middle;
+                index = 0;
+            } else {
+                int middle = (index + fence) >>> 1;
+                if (middle <= index)
+                    return null;
+
+                prefix = new LayeredSpliterator(layer, index, layer, middle, -1);
+                index = middle;
+            }
+
+            remaining = -1;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize()
+        {
+            if (remaining >= 0)
+                return remaining;
+
+            long estimate = 0;
+            for (int i = layer; i <= lastLayer; i++)
+                estimate += i == lastLayer ? fence : layers[i].own.length;
+
+            return Math.max(estimate - index, 0);
+        }
+
+        @Override
+        public int characteristics()
+        {
+            return remaining >= 0 ? CHARACTERISTICS | Spliterator.SIZED : CHARACTERISTICS;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+
+/**
+ * Stores the prototypes registered with a {@link PrototypeManager}. Implementations need not be thread-safe, the
+ * manager synchronizes all access.
+ *
+ * @author Benjamin Wied
+ *
+ * @see    PrototypeManager#PrototypeManager(PrototypeStorage)
+ * @see    OffHeapPrototypeStorage
+ */
+public interface PrototypeStorage
+{
+    /**
+     * @return a new storage keeping all prototypes on the heap, this is the default storage
+     */
+    static PrototypeStorage onHeap()
+    {
+        return new HeapPrototypeStorage();
+    }
+
+    /**
+     * Returns an Optional containing the prototype stored under the given name, or an empty Optional if there is none.
+     *
+     * @param  name
+     *              prototype name
+     *
+     * @return      the prototype
+     */
+    Optional<Prototype<?>> get(String name);
+
+    /**
+     * Stores the given prototype under its name, replacing any previously stored prototype.
+     *
+     * @param  prototype
+     *                   to store
+     *
+     * @return           true if a prototype was replaced
+     */
+    boolean put(Prototype<?> prototype);
+
+    /**
+     * Removes the prototype stored under the given name.
+     *
+     * @param  name
+     *              prototype name
+     *
+     * @return      true if a prototype was removed
+     */
+    boolean remove(String name);
+
+    /**
+     * @param  name
+     *              prototype name
+     *
+     * @return      true if a prototype is stored under the given name
+     */
+    boolean contains(String name);
+
+    /**
+     * Returns the number of bytes the prototype stored under the given name occupies outside of the heap. Used by
+     * {@link PrototypeManager#footprint()} to account for prototypes without deserializing them.
+     *
+     * @param  name
+     *              prototype name
+     *
+     * @return      the off-heap size of the prototype, or an empty OptionalLong if it is kept on the heap or missing
+     */
+    default OptionalLong offHeapBytes(String name)
+    {
+        return OptionalLong.empty();
+    }
+
+    /**
+     * @return an unmodifiable view of the names of all stored prototypes
+     */
+    Set<String> names();
+
+    /**
+     * @return the number of stored prototypes
+     */
+    int size();
+
+    /**
+     * Removes all prototypes.
+     */
+    void clear();
+}
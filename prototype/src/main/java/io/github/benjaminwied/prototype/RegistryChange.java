@@ -0,0 +1,113 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.util.Set;
+
+/**
+ * A batch of modifications of a {@link PrototypeManager}. Each name is listed in at most one of {@link #getAdded()},
+ * {@link #getReplaced()} and {@link #getRemoved()}.
+ *
+ * @author Benjamin Wied
+ *
+ * @see    PrototypeManager#subscribe(RegistryListener)
+ */
+public final class RegistryChange
+{
+    private final Set<String> added;
+    private final Set<String> replaced;
+    private final Set<String> removed;
+    private final long generation;
+
+    /**
+     * Constructs a new {@code RegistryChange}.
+     *
+     * @param  added
+     *                              names of prototypes which were not registered before
+     * @param  replaced
+     *                              names of prototypes which replaced a previously registered prototype
+     * @param  removed
+     *                              names of prototypes which were removed
+     * @param  generation
+     *                              generation of the manager after the modification
+     *
+     * @throws NullPointerException
+     *                              if any of the sets is null
+     */
+    public RegistryChange(Set<String> added, Set<String> replaced, Set<String> removed, long generation)
+    {
+        this.added = Set.copyOf(added);
+        this.replaced = Set.copyOf(replaced);
+        this.removed = Set.copyOf(removed);
+        this.generation = generation;
+    }
+
+    /**
+     * @return the names of prototypes which were not registered before
+     */
+    public Set<String> getAdded()
+    {
+        return added;
+    }
+
+    /**
+     * @return the names of prototypes which replaced a previously registered prototype
+     */
+    public Set<String> getReplaced()
+    {
+        return replaced;
+    }
+
+    /**
+     * @return the names of prototypes which were removed
+     */
+    public Set<String> getRemoved()
+    {
+        return removed;
+    }
+
+    /**
+     * @return the generation of the manager after the modification
+     * @see    PrototypeManager#getGeneration()
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * @return true if this change contains no modifications
+     */
+    public boolean isEmpty()
+    {
+        return added.isEmpty() && replaced.isEmpty() && removed.isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RegistryChange[generation=" + generation + ", added=" + added + ", replaced=" + replaced
+                + ", removed=" + removed + "]";
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Consistent view of a {@link PrototypeManager}, as returned by {@link PrototypeManager#snapshot()}.
+ *
+ * @author Benjamin Wied
+ */
+public final class RegistrySnapshot
+{
+    private final long generation;
+    private final List<Prototype<?>> prototypes;
+
+    RegistrySnapshot(long generation, Prototype<?>[] prototypes)
+    {
+        this.generation = generation;
+        this.prototypes = Collections.unmodifiableList(Arrays.asList(prototypes));
+    }
+
+    /**
+     * @return the {@link PrototypeManager#getGeneration() generation} of the manager when the snapshot was taken
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * @return an immutable list of all prototypes registered when the snapshot was taken, including those inherited
+     *         from parents
+     */
+    public List<Prototype<?>> getPrototypes()
+    {
+        return prototypes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RegistrySnapshot[generation=" + generation + ", prototypes=" + prototypes.size() + "]";
+    }
+}
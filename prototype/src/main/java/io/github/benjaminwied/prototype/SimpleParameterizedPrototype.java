@@ -0,0 +1,151 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Simple implementation of the {@link ParameterizedPrototype} interface. Builds variants using a builder function,
+ * whose arguments are the name of the prototype and the variant argument.<br>
+ * <br>
+ * A memoizing prototype builds each variant once and returns the same instance for equal arguments afterwards. Built
+ * variants are kept as long as the prototype is, so this should only be used for types which are immutable and for
+ * argument domains which are bounded.
+ *
+ * @author     Benjamin Wied
+ *
+ * @param  <A>
+ *             argument type
+ * @param  <T>
+ *             type which is represented by this Prototype
+ */
+public class SimpleParameterizedPrototype<A, T> implements ParameterizedPrototype<A, T>
+{
+    private final String name;
+    private final Class<A> argumentType;
+    private final A defaultArgument;
+    private final BiFunction<String, A, T> builder;
+    private final Map<A, T> variants;
+
+    /**
+     * Creates a new SimpleParameterizedPrototype that invokes the builder for each {@link #build(Object)} call.
+     *
+     * @param  name
+     *                              prototype name
+     * @param  argumentType
+     *                              argument type
+     * @param  defaultArgument
+     *                              argument used by {@link #build()}
+     * @param  builder
+     *                              prototype builder
+     *
+     * @throws NullPointerException
+     *                              if argumentType, defaultArgument or builder is null
+     */
+    public SimpleParameterizedPrototype(
+            String name, Class<A> argumentType, A defaultArgument, BiFunction<String, A, T> builder
+    )
+    {
+        this(name, argumentType, defaultArgument, builder, false);
+    }
+
+    /**
+     * Creates a new SimpleParameterizedPrototype, which invokes the builder once per argument if memoize is true, and
+     * for each {@link #build(Object)} call otherwise.
+     *
+     * @param  name
+     *                              prototype name
+     * @param  argumentType
+     *                              argument type
+     * @param  defaultArgument
+     *                              argument used by {@link #build()}
+     * @param  builder
+     *                              prototype builder
+     * @param  memoize
+     *                              whether variants are built once per argument
+     *
+     * @throws NullPointerException
+     *                              if argumentType, defaultArgument or builder is null
+     */
+    public SimpleParameterizedPrototype(
+            String name, Class<A> argumentType, A defaultArgument, BiFunction<String, A, T> builder, boolean memoize
+    )
+    {
+        this.name = name;
+        this.argumentType = Objects.requireNonNull(argumentType, "argumentType must not be null");
+        this.defaultArgument = argumentType
+                .cast(Objects.requireNonNull(defaultArgument, "defaultArgument must not be null"));
+        this.builder = Objects.requireNonNull(builder, "builder must not be null");
+        variants = memoize ? new ConcurrentHashMap<>() : null;
+    }
+
+    @Override
+    public String name()
+    {
+        return name;
+    }
+
+    @Override
+    public Class<A> argumentType()
+    {
+        return argumentType;
+    }
+
+    @Override
+    public A defaultArgument()
+    {
+        return defaultArgument;
+    }
+
+    @Override
+    public T build(A argument)
+    {
+        if (variants == null)
+            return builder.apply(name, argument);
+
+        /*
+         * Not using computeIfAbsent, as builders may build other variants of this prototype. Concurrent callers may
+         * build the same variant twice, but all of them receive the instance stored first.
+         */
+        T variant = variants.get(argument);
+        if (variant != null)
+            return variant;
+
+        variant = builder.apply(name, argument);
+        if (variant == null)
+            return null;
+
+        T previous = variants.putIfAbsent(argument, variant);
+        return previous != null ? previous : variant;
+    }
+
+    @Override
+    public boolean memoizable()
+    {
+        return variants != null;
+    }
+}
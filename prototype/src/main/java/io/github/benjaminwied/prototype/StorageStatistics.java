@@ -0,0 +1,127 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+/**
+ * Immutable snapshot of the statistics of an {@link OffHeapPrototypeStorage}.
+ *
+ * @author Benjamin Wied
+ */
+public final class StorageStatistics
+{
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final int cachedPrototypes;
+    private final long cachedBytes;
+    private final int storedPrototypes;
+    private final long storedBytes;
+
+    StorageStatistics(
+            long hitCount, long missCount, long evictionCount, int cachedPrototypes, long cachedBytes,
+            int storedPrototypes, long storedBytes
+    )
+    {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.cachedPrototypes = cachedPrototypes;
+        this.cachedBytes = cachedBytes;
+        this.storedPrototypes = storedPrototypes;
+        this.storedBytes = storedBytes;
+    }
+
+    /**
+     * @return the number of lookups served by the heap cache
+     */
+    public long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of lookups which had to deserialize a prototype
+     */
+    public long getMissCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * @return the ratio of hits to lookups, or 1 if there were no lookups
+     */
+    public double getHitRate()
+    {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 1 : (double) hitCount / lookups;
+    }
+
+    /**
+     * @return the number of prototypes evicted from the heap cache
+     */
+    public long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+    /**
+     * @return the number of prototypes currently held in the heap cache
+     */
+    public int getCachedPrototypes()
+    {
+        return cachedPrototypes;
+    }
+
+    /**
+     * @return the serialized size of all prototypes currently held in the heap cache
+     */
+    public long getCachedBytes()
+    {
+        return cachedBytes;
+    }
+
+    /**
+     * @return the number of stored prototypes
+     */
+    public int getStoredPrototypes()
+    {
+        return storedPrototypes;
+    }
+
+    /**
+     * @return the off-heap size of all stored prototypes
+     */
+    public long getStoredBytes()
+    {
+        return storedBytes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "StorageStatistics[hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount
+                + ", cached=" + cachedPrototypes + " (" + cachedBytes + " bytes), stored=" + storedPrototypes + " ("
+                + storedBytes + " bytes)]";
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Subscription of a {@link RegistryListener} to a {@link PrototypeManager}. Changes are delivered asynchronously on the
+ * subscription's executor. While the listener is busy, further changes are merged into a single pending change, so
+ * publishing never blocks and pending changes never queue up. Merging costs only the size of the published change, the
+ * pending change is copied once when it is delivered.
+ *
+ * @author Benjamin Wied
+ *
+ * @see    PrototypeManager#subscribe(RegistryListener, Executor)
+ */
+public final class Subscription implements AutoCloseable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(Subscription.class);
+
+    private final RegistryListener listener;
+    private final Executor executor;
+    private final Consumer<Subscription> onClose;
+
+    private Set<String> pendingAdded = new HashSet<>();
+    private Set<String> pendingReplaced = new HashSet<>();
+    private Set<String> pendingRemoved = new HashSet<>();
+    private long pendingGeneration;
+    private boolean pending;
+    private boolean scheduled;
+    private volatile boolean closed;
+
+    Subscription(RegistryListener listener, Executor executor, Consumer<Subscription> onClose)
+    {
+        this.listener = listener;
+        this.executor = executor;
+        this.onClose = onClose;
+    }
+
+    void publish(RegistryChange change)
+    {
+        synchronized (this) {
+            if (closed)
+                return;
+
+            merge(change);
+            if (scheduled)
+                return;
+            scheduled = true;
+        }
+
+        try {
+            executor.execute(this::deliver);
+        } catch (RejectedExecutionException e) {
+            LOGGER.error(Prototype.LOG_MARKER, "Failed to deliver registry change", e);
+            synchronized (this) {
+                scheduled = false;
+            }
+        }
+    }
+
+    /**
+     * Merges the given change into the pending change. Each name keeps its state from before the first pending change.
+     */
+    private void merge(RegistryChange change)
+    {
+        for (String name : change.getAdded()) {
+            if (pendingRemoved.remove(name))
+                pendingReplaced.add(name);
+            else
+                pendingAdded.add(name);
+        }
+        for (String name : change.getReplaced()) {
+            if (!pendingAdded.contains(name))
+                pendingReplaced.add(name);
+        }
+        for (String name : change.getRemoved()) {
+            if (!pendingAdded.remove(name)) {
+                pendingReplaced.remove(name);
+                pendingRemoved.add(name);
+            }
+        }
+
+        pendingGeneration = change.getGeneration();
+        pending = true;
+    }
+
+    private void deliver()
+    {
+        while (true) {
+            Set<String> added;
+            Set<String> replaced;
+            Set<String> removed;
+            long generation;
+            synchronized (this) {
+                if (!pending || closed) {
+                    scheduled = false;
+                    return;
+                }
+
+                // Swap the sets, so publishers are not blocked while the change is copied
+                added = pendingAdded;
+                replaced = pendingReplaced;
+                removed = pendingRemoved;
+                generation = pendingGeneration;
+                pendingAdded = new HashSet<>();
+                pendingReplaced = new HashSet<>();
+                pendingRemoved = new HashSet<>();
+                pending = false;
+            }
+
+            RegistryChange change = new RegistryChange(added, replaced, removed, generation);
+            try {
+                listener.onChange(change);
+            } catch (RuntimeException e) {
+                LOGGER.error(Prototype.LOG_MARKER, "Registry listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * @return true if this subscription was closed
+     */
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    /**
+     * Stops delivering changes to the listener. Changes not yet delivered are discarded.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        onClose.accept(this);
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Options for {@link PrototypeManager#warmUp(WarmUpOptions)}. Instances are immutable, use {@link #all()} and the
+ * {@code with*} methods to derive the desired options.
+ *
+ * @author Benjamin Wied
+ */
+public final class WarmUpOptions
+{
+    private static final WarmUpOptions ALL = new WarmUpOptions(
+            name -> true, Runtime.getRuntime().availableProcessors()
+    );
+
+    private final Predicate<String> filter;
+    private final int parallelism;
+
+    private WarmUpOptions(Predicate<String> filter, int parallelism)
+    {
+        this.filter = filter;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return options building all prototypes, using one thread per available processor
+     */
+    public static WarmUpOptions all()
+    {
+        return ALL;
+    }
+
+    /**
+     * Returns options only building prototypes whose name matches the given filter.
+     *
+     * @param  filter
+     *                              prototype name filter
+     *
+     * @return                      the derived options
+     *
+     * @throws NullPointerException
+     *                              if filter is null
+     */
+    public WarmUpOptions withFilter(Predicate<String> filter)
+    {
+        return new WarmUpOptions(Objects.requireNonNull(filter, "filter must not be null"), parallelism);
+    }
+
+    /**
+     * Returns options building prototypes using the given number of threads.
+     *
+     * @param  parallelism
+     *                                  number of threads
+     *
+     * @return                          the derived options
+     *
+     * @throws IllegalArgumentException
+     *                                  if parallelism is not positive
+     */
+    public WarmUpOptions withParallelism(int parallelism)
+    {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+
+        return new WarmUpOptions(filter, parallelism);
+    }
+
+    /**
+     * @return the prototype name filter
+     */
+    public Predicate<String> getFilter()
+    {
+        return filter;
+    }
+
+    /**
+     * @return the number of threads used
+     */
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+}
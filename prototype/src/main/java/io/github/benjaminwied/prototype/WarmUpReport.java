@@ -0,0 +1,85 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototype;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Result of {@link PrototypeManager#warmUp(WarmUpOptions)}.
+ *
+ * @author Benjamin Wied
+ */
+public final class WarmUpReport
+{
+    private final Map<String, Duration> buildTimes;
+    private final Map<String, Throwable> failures;
+    private final Duration totalTime;
+
+    WarmUpReport(Map<String, Duration> buildTimes, Map<String, Throwable> failures, Duration totalTime)
+    {
+        this.buildTimes = Map.copyOf(buildTimes);
+        this.failures = Map.copyOf(failures);
+        this.totalTime = totalTime;
+    }
+
+    /**
+     * @return an immutable map containing the build time of each prototype built, including failed builds
+     */
+    public Map<String, Duration> getBuildTimes()
+    {
+        return buildTimes;
+    }
+
+    /**
+     * @return an immutable map containing the exception thrown by each failed build
+     */
+    public Map<String, Throwable> getFailures()
+    {
+        return failures;
+    }
+
+    /**
+     * @return the wall-clock time of the whole warm-up
+     */
+    public Duration getTotalTime()
+    {
+        return totalTime;
+    }
+
+    /**
+     * @return true if no build failed
+     */
+    public boolean isSuccessful()
+    {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "WarmUpReport[built=" + buildTimes.size() + ", failed=" + failures.size() + ", totalTime=" + totalTime
+                + "]";
+    }
+}
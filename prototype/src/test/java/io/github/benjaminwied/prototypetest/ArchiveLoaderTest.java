@@ -0,0 +1,143 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototypetest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.benjaminwied.prototype.ArchiveLoader;
+import io.github.benjaminwied.prototype.LoadReport;
+import io.github.benjaminwied.prototype.PrototypeException;
+import io.github.benjaminwied.prototype.PrototypeManager;
+import io.github.benjaminwied.prototype.PrototypeParser;
+import io.github.benjaminwied.prototype.SimplePrototype;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings({ "javadoc", "static-method" })
+class ArchiveLoaderTest
+{
+    static final Map<String, Boolean> MAPPED = new ConcurrentHashMap<>();
+
+    /**
+     * Parses one prototype per line, recording whether the entry was read from a mapped buffer.
+     */
+    static final PrototypeParser PARSER = (entryName, content) -> {
+        MAPPED.put(entryName, content.isDirect());
+        String text = StandardCharsets.UTF_8.decode(content).toString();
+        if (text.contains("invalid"))
+            throw new IOException("invalid entry");
+
+        return text.lines().map(name -> new SimplePrototype<>(name, () -> name)).toList();
+    };
+
+    static void write(ZipOutputStream zip, String name, String content, boolean stored) throws IOException
+    {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        ZipEntry entry = new ZipEntry(name);
+        if (stored) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(bytes.length);
+            entry.setCrc(crc.getValue());
+        }
+
+        zip.putNextEntry(entry);
+        zip.write(bytes);
+        zip.closeEntry();
+    }
+
+    static Path archive(Map<String, String> deflated, Map<String, String> stored) throws IOException
+    {
+        Path archive = Files.createTempFile("prototypes", ".zip");
+        try (OutputStream out = Files.newOutputStream(archive); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> entry : deflated.entrySet())
+                write(zip, entry.getKey(), entry.getValue(), false);
+            for (Map.Entry<String, String> entry : stored.entrySet())
+                write(zip, entry.getKey(), entry.getValue(), true);
+        }
+        return archive;
+    }
+
+    @Test
+    void testLoadArchives() throws IOException
+    {
+        Path archive = archive(Map.of("items/swords.txt", "sword\nsword2"), Map.of("items/shields.txt", "shield"));
+        Path directory = Files.createTempDirectory("prototypes");
+        Files.writeString(Files.createDirectories(directory.resolve("blocks")).resolve("stone.txt"), "stone");
+        Files.writeString(directory.resolve("ignored.md"), "ignored");
+        try {
+            PrototypeManager manager = new PrototypeManager();
+            long generation = manager.getGeneration();
+            LoadReport report = new ArchiveLoader(PARSER).withFilter(name -> name.endsWith(".txt"))
+                    .load(manager, List.of(archive, directory));
+
+            assertEquals(Set.of("sword", "sword2", "shield", "stone"), manager.keys(), "wrong prototypes loaded");
+            assertEquals(4, report.getPrototypeCount(), "wrong prototype count");
+            assertEquals(2, report.getArchiveTimes().size(), "wrong archive count");
+            assertEquals(generation + 1, manager.getGeneration(), "not registered in one batch");
+            assertTrue(MAPPED.get("items/shields.txt"), "stored entry not read from mapping");
+            assertFalse(MAPPED.get("items/swords.txt"), "deflated entry read from mapping");
+            assertTrue(MAPPED.containsKey("blocks/stone.txt"), "wrong directory entry name");
+        } finally {
+            Files.delete(archive);
+            Files.delete(directory.resolve("blocks/stone.txt"));
+            Files.delete(directory.resolve("blocks"));
+            Files.delete(directory.resolve("ignored.md"));
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    void testFailedLoadIsAtomic() throws IOException
+    {
+        Path valid = archive(Map.of("valid.txt", "valid"), Map.of());
+        Path invalid = archive(Map.of(), Map.of("invalid.txt", "invalid"));
+        try {
+            PrototypeManager manager = new PrototypeManager();
+            ArchiveLoader loader = new ArchiveLoader(PARSER);
+            assertThrows(PrototypeException.class, () -> loader.load(manager, List.of(valid, invalid)), "no failure");
+            assertTrue(manager.keys().isEmpty(), "partially loaded");
+        } finally {
+            Files.delete(valid);
+            Files.delete(invalid);
+        }
+    }
+}
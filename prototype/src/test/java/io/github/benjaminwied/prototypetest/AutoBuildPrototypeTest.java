@@ -0,0 +1,141 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototypetest;
+
+import java.lang.invoke.MethodHandles;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.benjaminwied.prototype.AutoBuildPrototype;
+import io.github.benjaminwied.prototype.PrototypeException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SuppressWarnings({ "javadoc", "static-method" })
+class AutoBuildPrototypeTest
+{
+    public record Item(String label, long weight, boolean stackable)
+    {
+    }
+
+    public static class ItemPrototype extends AutoBuildPrototype<Item>
+    {
+        public String label;
+        public int weight;
+        public boolean stackable;
+        public String unused;
+
+        @Override
+        public String name()
+        {
+            return "item";
+        }
+    }
+
+    record Hidden(String label)
+    {
+    }
+
+    static class HiddenPrototype extends AutoBuildPrototype<Hidden>
+    {
+        public String label = "hidden";
+
+        HiddenPrototype()
+        {
+            super(MethodHandles.lookup());
+        }
+
+        @Override
+        public String name()
+        {
+            return "hidden";
+        }
+    }
+
+    public static class MismatchedPrototype extends AutoBuildPrototype<Item>
+    {
+        public String label;
+
+        @Override
+        public String name()
+        {
+            return "mismatched";
+        }
+    }
+
+    public static class Target
+    {
+        public Target()
+        {
+        }
+
+        public Target(String a)
+        {
+        }
+    }
+
+    public static class UnmappedPrototype extends AutoBuildPrototype<Target>
+    {
+        public String a = "x";
+        public String b = "y";
+
+        @Override
+        public String name()
+        {
+            return "unmapped";
+        }
+    }
+
+    @Test
+    void testRecordBuild()
+    {
+        ItemPrototype prototype = new ItemPrototype();
+        prototype.label = "sword";
+        prototype.weight = 3;
+        prototype.stackable = false;
+
+        assertEquals(new Item("sword", 3, false), prototype.build(), "wrong build result");
+        prototype.weight = 4;
+        assertEquals(new Item("sword", 4, false), prototype.build(), "fields not read on each build");
+    }
+
+    @Test
+    void testPrivateLookup()
+    {
+        assertEquals(new Hidden("hidden"), new HiddenPrototype().build(), "wrong build result");
+    }
+
+    @Test
+    void testMissingField()
+    {
+        assertThrows(PrototypeException.class, () -> new MismatchedPrototype().build(), "missing field accepted");
+    }
+
+    @Test
+    void testUnmappedField()
+    {
+        assertThrows(PrototypeException.class, () -> new UnmappedPrototype().build(), "unmapped field ignored");
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototypetest;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.benjaminwied.prototype.IntegrityChecker;
+import io.github.benjaminwied.prototype.OptionalReference;
+import io.github.benjaminwied.prototype.Prototype;
+import io.github.benjaminwied.prototype.PrototypeException;
+import io.github.benjaminwied.prototype.PrototypeManager;
+import io.github.benjaminwied.prototype.PrototypeMetadata;
+import io.github.benjaminwied.prototype.PrototypeMetadataIndex;
+import io.github.benjaminwied.prototype.PrototypeReference;
+import io.github.benjaminwied.prototype.SimplePrototype;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings({ "javadoc", "static-method" })
+class IntegrityCheckerTest
+{
+    public static class ReferencingPrototype implements Prototype<String>
+    {
+        public PrototypeReference<String, ?> target;
+        @OptionalReference
+        public PrototypeReference<String, ?> optionalTarget;
+
+        private final String name;
+
+        ReferencingPrototype(String name, String target)
+        {
+            this.name = name;
+            this.target = target == null ? null : new PrototypeReference<>(target);
+        }
+
+        @Override
+        public String name()
+        {
+            return name;
+        }
+
+        @Override
+        public String build()
+        {
+            return name;
+        }
+    }
+
+    public static class NestingPrototype implements Prototype<String>
+    {
+        public Prototype<String> nested = new SimplePrototype<>("nested", () -> "nested");
+
+        @Override
+        public String name()
+        {
+            return "nesting";
+        }
+
+        @Override
+        public String build()
+        {
+            return "nesting";
+        }
+    }
+
+    public static class GenericPrototype<T> extends SimplePrototype<T>
+    {
+        public PrototypeReference<String, Prototype<String>> target = new PrototypeReference<>("target");
+        public T value;
+
+        public GenericPrototype(String name)
+        {
+            super(name, () -> null);
+        }
+    }
+
+    public static class GenericBase<X> implements Prototype<String>
+    {
+        public X value;
+
+        @Override
+        public String name()
+        {
+            return "base";
+        }
+
+        @Override
+        public String build()
+        {
+            return "base";
+        }
+    }
+
+    public static class HiddenTypePrototype extends SimplePrototype<String>
+    {
+        private static class Secret
+        {}
+
+        public Secret secret = new Secret();
+
+        public HiddenTypePrototype(String name)
+        {
+            super(name, () -> name);
+        }
+    }
+
+    @Test
+    void testGeneratedMetadata()
+    {
+        PrototypeMetadata<ReferencingPrototype> metadata = PrototypeMetadataIndex.lookup(ReferencingPrototype.class)
+                .orElseThrow();
+        assertEquals(2, metadata.referenceFields().size(), "wrong reference field count");
+        assertTrue(
+                metadata.fields().stream()
+                        .anyMatch(field -> field.getName().equals("optionalTarget") && field.isOptionalReference()),
+                "optional reference not detected"
+        );
+        assertFalse(PrototypeMetadataIndex.lookup(SimplePrototype.class).isPresent(), "unexpected metadata");
+        assertEquals(
+                1, PrototypeMetadataIndex.lookup(GenericPrototype.class).orElseThrow().referenceFields().size(),
+                "wrong generic reference field count"
+        );
+        assertTrue(PrototypeMetadataIndex.lookup(GenericBase.class).isPresent(), "no generic metadata");
+        assertFalse(
+                PrototypeMetadataIndex.lookup(HiddenTypePrototype.class).isPresent(), "metadata for inaccessible field"
+        );
+    }
+
+    @Test
+    void testReferenceIntegrity()
+    {
+        PrototypeManager manager = new PrototypeManager();
+        manager.register(new SimplePrototype<>("target", () -> "target"));
+
+        assertFalse(IntegrityChecker.verifyIntegrity(manager, new ReferencingPrototype("a", "target")), "valid");
+        assertTrue(IntegrityChecker.verifyIntegrity(manager, new ReferencingPrototype("b", "missing")), "missing");
+        assertTrue(IntegrityChecker.verifyIntegrity(manager, new ReferencingPrototype("c", null)), "null");
+    }
+
+    @Test
+    void testNestedPrototype()
+    {
+        assertTrue(IntegrityChecker.verifySelfContaintedIntegrity(new NestingPrototype()), "nesting not detected");
+    }
+
+    @Test
+    void testLayeredIntegrity()
+    {
+        PrototypeManager parent = new PrototypeManager();
+        parent.register(new SimplePrototype<>("target", () -> "target"));
+        parent.register(new ReferencingPrototype("source", "target"));
+
+        PrototypeManager child = new PrototypeManager(parent);
+        child.register(new ReferencingPrototype("override", "target"));
+        assertDoesNotThrow(() -> IntegrityChecker.verifyIntegrity(child), "valid layered view");
+
+        child.register(new ReferencingPrototype("broken", "missing"));
+        assertThrows(PrototypeException.class, () -> IntegrityChecker.verifyIntegrity(child), "invalid layered view");
+        assertDoesNotThrow(() -> IntegrityChecker.verifyIntegrity(parent), "parent affected by child");
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototypetest;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.benjaminwied.prototype.Footprint;
+import io.github.benjaminwied.prototype.JavaSerializationCodec;
+import io.github.benjaminwied.prototype.OffHeapPrototypeStorage;
+import io.github.benjaminwied.prototype.Prototype;
+import io.github.benjaminwied.prototype.PrototypeManager;
+import io.github.benjaminwied.prototype.StorageStatistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings({ "javadoc", "static-method" })
+class OffHeapPrototypeStorageTest
+{
+    public static class ValuePrototype implements Prototype<String>, Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        public String name;
+        public String value;
+
+        ValuePrototype(String name, String value)
+        {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public String name()
+        {
+            return name;
+        }
+
+        @Override
+        public String build()
+        {
+            return value;
+        }
+    }
+
+    public static class MemoizablePrototype extends ValuePrototype
+    {
+        private static final long serialVersionUID = 1L;
+
+        MemoizablePrototype(String name, String value)
+        {
+            super(name, value);
+        }
+
+        @Override
+        public boolean memoizable()
+        {
+            return true;
+        }
+    }
+
+    @Test
+    void testAsyncSingleFlight()
+    {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        PrototypeManager manager = new PrototypeManager(new OffHeapPrototypeStorage(new JavaSerializationCodec(), 0));
+        manager.setBuildExecutor(tasks::add);
+        manager.register(new MemoizablePrototype("memoizable", "value"));
+
+        CompletableFuture<String> first = manager.createTypeAsync("memoizable");
+        CompletableFuture<String> second = manager.createTypeAsync("memoizable");
+        assertEquals(1, tasks.size(), "decoded instances not coalesced");
+
+        tasks.forEach(Runnable::run);
+        assertSame(first.join(), second.join(), "coalesced builds returned different results");
+    }
+
+    @Test
+    void testDirectStorage()
+    {
+        verifyStorage(new OffHeapPrototypeStorage(new JavaSerializationCodec(), 0));
+    }
+
+    @Test
+    void testMappedStorage() throws IOException
+    {
+        Path file = Files.createTempFile("prototypes", ".bin");
+        try (OffHeapPrototypeStorage storage = new OffHeapPrototypeStorage(new JavaSerializationCodec(), 0, file)) {
+            verifyStorage(storage);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testCacheBound()
+    {
+        JavaSerializationCodec codec = new JavaSerializationCodec();
+        int size = codec.encode(new ValuePrototype("value0", "v0")).length;
+        OffHeapPrototypeStorage storage = new OffHeapPrototypeStorage(codec, 2L * size);
+        PrototypeManager manager = new PrototypeManager(storage);
+        for (int i = 0; i < 3; i++)
+            manager.register(new ValuePrototype("value" + i, "v" + i));
+        manager.register(new ValuePrototype("large", "x".repeat(1000)));
+
+        manager.createType("value0");
+        manager.createType("value1");
+        manager.createType("value2");
+        assertEquals(1, storage.getStatistics().getEvictionCount(), "cache bound not enforced");
+
+        manager.createType("large");
+        StorageStatistics statistics = storage.getStatistics();
+        assertEquals(1, statistics.getEvictionCount(), "oversized prototype evicted cache");
+        assertTrue(statistics.getCachedBytes() <= 2L * size, "cache bound exceeded");
+    }
+
+    @Test
+    void testFootprint()
+    {
+        JavaSerializationCodec codec = new JavaSerializationCodec();
+        OffHeapPrototypeStorage storage = new OffHeapPrototypeStorage(codec, 0);
+        PrototypeManager manager = new PrototypeManager(storage);
+        manager.register(new ValuePrototype("items/a", "a"));
+        manager.register(new ValuePrototype("items/b", "b"));
+
+        Footprint footprint = manager.footprint();
+        long a = codec.encode(new ValuePrototype("items/a", "a")).length;
+        assertEquals(a, footprint.getPrototypeBytes().get("items/a").longValue(), "serialized size not reported");
+        assertEquals(footprint.getTotalBytes(), storage.getStatistics().getStoredBytes(), "wrong total footprint");
+        assertEquals(footprint.getTotalBytes(), footprint.getClassBytes().get(ValuePrototype.class).longValue(),
+                "wrong class footprint");
+        assertSame(footprint, manager.footprint(), "unmodified footprint recomputed");
+
+        manager.register(new ValuePrototype("items/b", "replaced"));
+        assertEquals(footprint.getTotalBytes() + 7, manager.footprint().getTotalBytes(), "replacement not counted");
+        assertEquals(0, storage.getStatistics().getMissCount(), "prototypes deserialized");
+    }
+
+    private static void verifyStorage(OffHeapPrototypeStorage storage)
+    {
+        PrototypeManager manager = new PrototypeManager(storage);
+        for (int i = 0; i < 10; i++)
+            manager.register(new ValuePrototype("value" + i, "v" + i));
+        manager.register(new ValuePrototype("value3", "replaced"));
+
+        assertEquals("v1", manager.createType("value1"), "wrong value");
+        assertEquals("replaced", manager.createType("value3"), "replacement lost");
+        assertEquals(10, manager.keys().size(), "wrong key count");
+
+        StorageStatistics statistics = storage.getStatistics();
+        assertEquals(2, statistics.getMissCount(), "prototypes not deserialized");
+        assertEquals(0, statistics.getEvictionCount(), "oversized prototypes cached");
+        assertEquals(0, statistics.getCachedBytes(), "cache bound exceeded");
+        assertEquals(10, statistics.getStoredPrototypes(), "wrong stored count");
+    }
+}
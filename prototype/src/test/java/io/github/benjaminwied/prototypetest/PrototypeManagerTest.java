@@ -0,0 +1,476 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024 Benjamin Wied
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.benjaminwied.prototypetest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.benjaminwied.prototype.BulkPrototype;
+import io.github.benjaminwied.prototype.ColumnSink;
+import io.github.benjaminwied.prototype.Footprint;
+import io.github.benjaminwied.prototype.Prototype;
+import io.github.benjaminwied.prototype.PrototypeManager;
+import io.github.benjaminwied.prototype.PrototypeReference;
+import io.github.benjaminwied.prototype.RegistryChange;
+import io.github.benjaminwied.prototype.SimpleParameterizedPrototype;
+import io.github.benjaminwied.prototype.SimplePrototype;
+import io.github.benjaminwied.prototype.Subscription;
+import io.github.benjaminwied.prototype.WarmUpOptions;
+import io.github.benjaminwied.prototype.WarmUpReport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings({ "javadoc", "static-method" })
+class PrototypeManagerTest
+{
+    static class CountingPrototype extends SimplePrototype<Object>
+    {
+        final AtomicInteger builds = new AtomicInteger();
+        final boolean memoizable;
+
+        CountingPrototype(String name, boolean memoizable)
+        {
+            super(name, Object::new);
+            this.memoizable = memoizable;
+        }
+
+        @Override
+        public Object build()
+        {
+            builds.incrementAndGet();
+            return super.build();
+        }
+
+        @Override
+        public boolean memoizable()
+        {
+            return memoizable;
+        }
+    }
+
+    @Test
+    void testAsyncSingleFlight()
+    {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        PrototypeManager manager = new PrototypeManager();
+        manager.setBuildExecutor(tasks::add);
+
+        CountingPrototype memoizable = new CountingPrototype("memoizable", true);
+        CountingPrototype plain = new CountingPrototype("plain", false);
+        manager.register(memoizable);
+        manager.register(plain);
+
+        CompletableFuture<Object> first = manager.createTypeAsync("memoizable");
+        CompletableFuture<Object> second = manager.createTypeAsync("memoizable");
+        manager.createTypeAsync("plain");
+        manager.createTypeAsync("plain");
+        assertEquals(3, tasks.size(), "memoizable builds not coalesced");
+
+        tasks.forEach(Runnable::run);
+        assertSame(first.join(), second.join(), "coalesced builds returned different results");
+        assertEquals(1, memoizable.builds.get(), "wrong memoizable build count");
+        assertEquals(2, plain.builds.get(), "wrong plain build count");
+    }
+
+    @Test
+    void testAsyncCancellation()
+    {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        PrototypeManager manager = new PrototypeManager();
+        manager.setBuildExecutor(tasks::add);
+
+        CountingPrototype memoizable = new CountingPrototype("memoizable", true);
+        manager.register(memoizable);
+
+        manager.createTypeAsync("memoizable").cancel(false);
+        CompletableFuture<Object> waiting = manager.createTypeAsync("memoizable");
+        tasks.forEach(Runnable::run);
+        assertFalse(waiting.isCompletedExceptionally(), "remaining caller affected by cancellation");
+        assertEquals(1, memoizable.builds.get(), "build skipped while callers wait");
+
+        tasks.clear();
+        manager.createTypeAsync("memoizable").cancel(false);
+        tasks.forEach(Runnable::run);
+        assertEquals(1, memoizable.builds.get(), "build not skipped after all callers cancelled");
+        assertTrue(manager.createTypeAsync("missing").isCompletedExceptionally(), "missing prototype");
+    }
+
+    @Test
+    void testLayeredLookup()
+    {
+        PrototypeManager parent = new PrototypeManager();
+        parent.register(new SimplePrototype<>("shared", () -> "parent"));
+        parent.register(new SimplePrototype<>("overridden", () -> "parent"));
+
+        PrototypeManager child = new PrototypeManager(parent);
+        child.register(new SimplePrototype<>("overridden", () -> "child"));
+
+        assertEquals("parent", child.createType("shared"), "parent prototype not visible");
+        assertEquals("child", child.createType("overridden"), "override not applied");
+        assertEquals("parent", parent.createType("overridden"), "parent modified by child");
+        assertEquals(Set.of("shared", "overridden"), child.keys(), "wrong merged keys");
+        assertFalse(child.keys().contains(null), "null key reported");
+        assertEquals(2, child.allPrototypes().size(), "wrong merged prototypes");
+
+        assertFalse(child.getPrototype("late").isPresent(), "unexpected prototype");
+        parent.register(new SimplePrototype<>("late", () -> "parent"));
+        assertEquals("parent", child.createType("late"), "stale negative cache");
+    }
+
+    @Test
+    void testWarmUp()
+    {
+        PrototypeManager manager = new PrototypeManager();
+        CountingPrototype first = new CountingPrototype("group/first", false);
+        CountingPrototype second = new CountingPrototype("group/second", false);
+        manager.register(first);
+        manager.register(second);
+        manager.register(new CountingPrototype("other", false));
+        manager.register(new SimplePrototype<>("group/broken", () -> {
+            throw new IllegalStateException();
+        }));
+        manager.register(new SimplePrototype<>("group/assertion", () -> {
+            throw new AssertionError();
+        }));
+        manager.register(new SimplePrototype<>("group/recursive", () -> {
+            throw new StackOverflowError();
+        }));
+
+        WarmUpReport report = manager.warmUp(WarmUpOptions.all().withFilter(name -> name.startsWith("group/")));
+        Set<String> failed = Set.of("group/broken", "group/assertion", "group/recursive");
+        assertEquals(5, report.getBuildTimes().size(), "wrong prototypes built");
+        assertEquals(failed, report.getFailures().keySet(), "wrong failures");
+        assertFalse(report.isSuccessful(), "failure not reported");
+        assertEquals(1, first.builds.get(), "wrong build count");
+        assertEquals(1, second.builds.get(), "wrong build count");
+    }
+
+    @Test
+    void testSecondaryIndexes()
+    {
+        PrototypeManager parent = new PrototypeManager();
+        CountingPrototype counting = new CountingPrototype("counting", false);
+        parent.register(counting);
+        parent.register(new CountingPrototype("overridden", false));
+        parent.register(new SimplePrototype<>("simple", () -> "simple")
+        {
+            @Override
+            public Set<String> tags()
+            {
+                return Set.of("tagged");
+            }
+        });
+
+        PrototypeManager child = new PrototypeManager(parent);
+        SimplePrototype<Object> override = new SimplePrototype<>("overridden", Object::new);
+        child.register(override);
+
+        assertEquals(Set.of(counting), child.prototypesOfClass(CountingPrototype.class), "wrong class index");
+        assertEquals(3, child.prototypesOfType(SimplePrototype.class).size(), "wrong type index");
+        assertEquals(1, child.prototypesWithTag("tagged").size(), "wrong tag index");
+        assertEquals(2, parent.prototypesOfClass(CountingPrototype.class).size(), "parent index modified");
+
+        child.clear();
+        assertEquals(2, child.prototypesOfClass(CountingPrototype.class).size(), "index not cleared");
+    }
+
+    @Test
+    void testChangeNotification()
+    {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        List<RegistryChange> changes = new ArrayList<>();
+        PrototypeManager manager = new PrototypeManager();
+        manager.register(new SimplePrototype<>("existing", Object::new));
+        Subscription subscription = manager.subscribe(changes::add, tasks::add);
+
+        Map<String, Prototype<?>> batch = Map.of(
+                "a", new SimplePrototype<>("a", Object::new),
+                "existing", new SimplePrototype<>("existing", Object::new)
+        );
+        manager.registerAll(batch);
+        tasks.forEach(Runnable::run);
+        tasks.clear();
+        assertEquals(1, changes.size(), "batch not delivered as one change");
+        assertEquals(Set.of("a"), changes.get(0).getAdded(), "wrong added names");
+        assertEquals(Set.of("existing"), changes.get(0).getReplaced(), "wrong replaced names");
+        assertEquals(manager.getGeneration(), changes.get(0).getGeneration(), "wrong generation");
+
+        manager.register(new SimplePrototype<>("b", Object::new));
+        manager.unregister("b");
+        manager.unregister("a");
+        assertEquals(1, tasks.size(), "pending changes not coalesced");
+        tasks.forEach(Runnable::run);
+        tasks.clear();
+        assertEquals(Set.of(), changes.get(1).getAdded(), "transient prototype reported");
+        assertEquals(Set.of("a"), changes.get(1).getRemoved(), "wrong removed names");
+
+        manager.unregister("existing");
+        manager.register(new SimplePrototype<>("existing", Object::new));
+        tasks.forEach(Runnable::run);
+        tasks.clear();
+        assertEquals(Set.of("existing"), changes.get(2).getReplaced(), "re-registration not merged");
+        assertEquals(Set.of(), changes.get(2).getRemoved(), "re-registered prototype removed");
+
+        subscription.close();
+        manager.clear();
+        assertTrue(tasks.isEmpty(), "closed subscription notified");
+    }
+
+    @Test
+    void testFailedBatch()
+    {
+        PrototypeManager manager = new PrototypeManager();
+        manager.register(new SimplePrototype<>("a", Object::new));
+        long generation = manager.getGeneration();
+
+        Map<String, Prototype<?>> batch = new HashMap<>();
+        batch.put("b", new SimplePrototype<>("b", Object::new));
+        batch.put("c", null);
+        assertThrows(NullPointerException.class, () -> manager.registerAll(batch), "null prototype registered");
+        assertFalse(manager.getPrototype("b").isPresent(), "partial batch registered");
+        assertEquals(generation, manager.getGeneration(), "generation advanced");
+
+        List<Prototype<?>> registered = List.of(new SimplePrototype<>("b", Object::new));
+        assertThrows(NullPointerException.class, () -> manager.update(registered, Arrays.asList("a", null)),
+                "null name removed");
+        assertTrue(manager.getPrototype("a").isPresent(), "partial update applied");
+        assertEquals(Set.of("a"), manager.keys(), "partial update applied");
+        assertEquals(generation, manager.getGeneration(), "generation advanced");
+    }
+
+    @Test
+    void testParameterizedPrototype()
+    {
+        PrototypeManager manager = new PrototypeManager();
+        manager.register(
+                new SimpleParameterizedPrototype<>("items/sword", Integer.class, 1, (name, level) -> name + level * 10)
+        );
+        manager.register(
+                new SimpleParameterizedPrototype<>(
+                        "items/shield", Integer.class, 1, (name, level) -> List.of(level), true
+                )
+        );
+        manager.register(new SimplePrototype<>("plain", Object::new));
+
+        assertEquals("items/sword50", manager.createType("items/sword", 5), "wrong variant");
+        assertEquals("items/sword10", manager.createType("items/sword"), "wrong default variant");
+        assertEquals(
+                "items/sword70", manager.createType(new PrototypeReference<String, Prototype<String>>("items/sword")
+                        .withArgument(7)),
+                "wrong referenced variant"
+        );
+
+        assertSame(manager.createType("items/shield", 3), manager.createType("items/shield", 3), "not memoized");
+        assertNotSame(manager.createType("items/shield", 3), manager.createType("items/shield", 4), "wrong variant");
+
+        assertThrows(IllegalArgumentException.class, () -> manager.createType("items/sword", "5"), "wrong argument");
+        assertThrows(IllegalArgumentException.class, () -> manager.createType("plain", 5), "not parameterized");
+        assertTrue(manager.optionalCreateType("missing", 5).isEmpty(), "missing prototype built");
+    }
+
+    record Entity(int health, float speed) {}
+
+    static class EntityPrototype extends SimplePrototype<Entity> implements BulkPrototype<Entity>
+    {
+        EntityPrototype(String name)
+        {
+            super(name, () -> new Entity(100, 1.5f));
+        }
+
+        @Override
+        public void buildInto(int count, ColumnSink<Entity> sink)
+        {
+            int[] health = sink.ints("health");
+            if (health != null)
+                Arrays.fill(health, 0, count, 100);
+
+            float[] speed = sink.floats("speed");
+            if (speed != null)
+                Arrays.fill(speed, 0, count, 1.5f);
+        }
+    }
+
+    static class EntityColumns implements ColumnSink<Entity>
+    {
+        final int[] health = new int[4];
+        final float[] speed = new float[4];
+
+        @Override
+        public void store(int index, Entity instance)
+        {
+            health[index] = instance.health();
+            speed[index] = instance.speed();
+        }
+
+        @Override
+        public boolean supportsColumns()
+        {
+            return true;
+        }
+
+        @Override
+        public int[] ints(String field)
+        {
+            return field.equals("health") ? health : null;
+        }
+
+        @Override
+        public float[] floats(String field)
+        {
+            return field.equals("speed") ? speed : null;
+        }
+    }
+
+    @Test
+    void testBulkCreation()
+    {
+        PrototypeManager manager = new PrototypeManager();
+        manager.register(new EntityPrototype("bulk"));
+        manager.register(new SimplePrototype<>("single", () -> new Entity(100, 1.5f)));
+
+        for (String name : List.of("bulk", "single")) {
+            EntityColumns columns = new EntityColumns();
+            manager.createBulk(name, 3, columns);
+            assertArrayEquals(new int[] { 100, 100, 100, 0 }, columns.health, "wrong health column of " + name);
+            assertArrayEquals(new float[] { 1.5f, 1.5f, 1.5f, 0 }, columns.speed, "wrong speed column of " + name);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> manager.createBulk("bulk", -1, new EntityColumns()));
+        assertThrows(IllegalArgumentException.class, () -> manager.createBulk("bulk", 5, new EntityColumns()));
+
+        List<Entity> entities = new ArrayList<>();
+        manager.<Entity>createBulk("bulk", 2, (index, entity) -> entities.add(entity));
+        assertEquals(List.of(new Entity(100, 1.5f), new Entity(100, 1.5f)), entities, "lambda sink not filled");
+    }
+
+    @Test
+    void testFootprint()
+    {
+        int[] shared = new int[1000];
+        PrototypeManager manager = new PrototypeManager();
+        manager.register(new SimplePrototype<>("items/a", () -> shared));
+        manager.register(new SimplePrototype<>("items/b", () -> shared));
+
+        Footprint footprint = manager.footprint();
+        long a = footprint.getPrototypeBytes().get("items/a");
+        long b = footprint.getPrototypeBytes().get("items/b");
+        assertTrue(a > 4000, "shared array not counted");
+        assertTrue(b < 4000, "shared array counted twice");
+        assertEquals(a + b, footprint.getNamespaceBytes().get("items").longValue(), "wrong namespace footprint");
+        assertEquals(a + b, footprint.getClassBytes().get(SimplePrototype.class).longValue(), "wrong class footprint");
+        assertSame(footprint, manager.footprint(), "unmodified footprint recomputed");
+
+        List<long[]> list = List.of(new long[100]);
+        manager.register(new SimplePrototype<>("other", () -> list));
+        footprint = manager.footprint();
+        assertEquals(a, footprint.getPrototypeBytes().get("items/a").longValue(), "unmodified prototype changed");
+        assertTrue(footprint.getPrototypeBytes().get("other") > 800, "collection elements not counted");
+        assertEquals(a + b, footprint.getNamespaceBytes().get("items").longValue(), "wrong namespace footprint");
+
+        manager.unregister("items/a");
+        assertTrue(manager.footprint().getPrototypeBytes().get("items/b") > 4000, "shared array not reassigned");
+        assertTrue(manager.footprint(0).getPrototypeBytes().get("items/b") < 4000, "depth not bounded");
+        assertThrows(IllegalArgumentException.class, () -> manager.footprint(-1), "negative depth accepted");
+    }
+
+    @Test
+    void testLayeredSnapshot()
+    {
+        PrototypeManager parent = new PrototypeManager();
+        for (int i = 0; i < 1000; i++)
+            parent.register(new SimplePrototype<>("p" + i, Object::new));
+
+        PrototypeManager child = new PrototypeManager(parent);
+        child.register(new SimplePrototype<>("p0", Object::new));
+        child.register(new SimplePrototype<>("own", Object::new));
+        PrototypeManager grandchild = new PrototypeManager(child);
+        grandchild.register(new SimplePrototype<>("p1", Object::new));
+        grandchild.register(new SimplePrototype<>("own", Object::new));
+
+        assertEquals(1001, grandchild.keys().size(), "wrong key count");
+        assertTrue(grandchild.keys().contains("p999"), "inherited name missing");
+        assertFalse(grandchild.keys().contains(null), "null key reported");
+        assertEquals(1001, grandchild.stream().parallel().map(Prototype::name).distinct().count(), "wrong stream");
+        assertEquals(grandchild.keys(), Set.copyOf(grandchild.stream().map(Prototype::name).toList()), "keys differ");
+        assertTrue(
+                grandchild.stream().anyMatch(prototype -> prototype == child.getPrototype("p0").orElseThrow()),
+                "intermediate override not streamed"
+        );
+
+        parent.register(new SimplePrototype<>("added", Object::new));
+        assertTrue(grandchild.keys().contains("added"), "parent modification not visible");
+        assertEquals(1002, grandchild.snapshot().getPrototypes().size(), "wrong snapshot size");
+    }
+
+    @Test
+    void testSnapshotIteration()
+    {
+        PrototypeManager parent = new PrototypeManager();
+        for (int i = 0; i < 1000; i++)
+            parent.register(new SimplePrototype<>("p" + i, Object::new));
+
+        PrototypeManager child = new PrototypeManager(parent);
+        child.register(new SimplePrototype<>("p0", Object::new));
+        child.register(new SimplePrototype<>("own", Object::new));
+
+        Spliterator<Prototype<?>> spliterator = child.spliterator();
+        assertTrue(
+                spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.IMMUTABLE | Spliterator.DISTINCT),
+                "wrong characteristics"
+        );
+        assertEquals(1001, spliterator.estimateSize(), "wrong snapshot size");
+        assertEquals(1001, child.stream().parallel().map(Prototype::name).distinct().count(), "wrong parallel stream");
+        assertEquals(child.keys(), Set.copyOf(child.stream().map(Prototype::name).toList()), "keys differ");
+        assertTrue(
+                child.stream().anyMatch(prototype -> prototype == child.getPrototype("p0").orElseThrow()),
+                "override not streamed"
+        );
+
+        List<String> visited = new ArrayList<>();
+        child.forEach(prototype -> {
+            visited.add(prototype.name());
+            child.unregister(prototype.name());
+        });
+        assertEquals(1001, visited.size(), "snapshot modified during iteration");
+        assertEquals(1000, child.keys().size(), "parent prototypes not visible");
+        assertEquals(1001, spliterator.estimateSize(), "spliterator modified");
+    }
+}